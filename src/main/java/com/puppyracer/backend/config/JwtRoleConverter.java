@@ -0,0 +1,58 @@
+package com.puppyracer.backend.config;
+
+import com.puppyracer.backend.model.Role;
+import com.puppyracer.backend.service.UserPrincipalCache;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * Wandelt das JWT einmal pro Request in eine Authentication um und
+ * ergänzt die App-Rolle aus User (ROLE_ADMIN / ROLE_BUYER).
+ * Damit funktionieren hasRole('ADMIN') und @PreAuthorize ohne eigene
+ * Datenbankabfragen in den Controllern.
+ */
+public class JwtRoleConverter implements Converter<Jwt, AbstractAuthenticationToken> {
+
+    public static final String ROLE_PREFIX = "ROLE_";
+    public static final String ADMIN_AUTHORITY = ROLE_PREFIX + Role.ADMIN.name();
+
+    private final UserPrincipalCache userPrincipalCache;
+    private final JwtGrantedAuthoritiesConverter scopeConverter = new JwtGrantedAuthoritiesConverter();
+
+    public JwtRoleConverter(UserPrincipalCache userPrincipalCache) {
+        this.userPrincipalCache = userPrincipalCache;
+    }
+
+    @Override
+    public AbstractAuthenticationToken convert(Jwt jwt) {
+        Collection<GrantedAuthority> authorities = new ArrayList<>(scopeConverter.convert(jwt));
+
+        userPrincipalCache.findByOauthId(jwt.getSubject())
+                .map(user -> user.getRole())
+                .ifPresent(role -> authorities.add(new SimpleGrantedAuthority(ROLE_PREFIX + role.name())));
+
+        return new JwtAuthenticationToken(jwt, authorities, jwt.getSubject());
+    }
+
+    // Prüft die bereits aufgelöste Rolle, ohne Datenbankzugriff
+    public static boolean isAdmin(Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return false;
+        }
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            if (ADMIN_AUTHORITY.equals(authority.getAuthority())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
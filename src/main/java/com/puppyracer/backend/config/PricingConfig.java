@@ -0,0 +1,22 @@
+package com.puppyracer.backend.config;
+
+import com.puppyracer.backend.service.ShippingCostRule;
+import com.puppyracer.backend.service.ThresholdShippingCostRule;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.math.BigDecimal;
+
+@Configuration
+public class PricingConfig {
+
+    // Standardregel; eine eigene ShippingCostRule-Bean mit @Primary ersetzt sie.
+    // (@ConditionalOnMissingBean ist nur in Auto-Konfigurationen verlässlich)
+    @Bean
+    public ShippingCostRule shippingCostRule(
+            @Value("${app.shipping.flat-rate:4.99}") BigDecimal flatRate,
+            @Value("${app.shipping.free-from:#{null}}") BigDecimal freeFrom) {
+        return new ThresholdShippingCostRule(flatRate, freeFrom);
+    }
+}
@@ -1,9 +1,11 @@
 package com.puppyracer.backend.config;
 
+import com.puppyracer.backend.service.UserPrincipalCache;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.config.Customizer;
+import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
@@ -11,10 +13,11 @@ import org.springframework.security.web.SecurityFilterChain;
 
 @Configuration
 @EnableWebSecurity
+@EnableMethodSecurity
 public class SecurityConfig {
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, UserPrincipalCache userPrincipalCache) throws Exception {
         return http
             .cors(Customizer.withDefaults())  // Wichtig für Spring Security CORS Integration
             
@@ -32,6 +35,7 @@ public class SecurityConfig {
                 .requestMatchers("/").permitAll()
                 .requestMatchers("/error").permitAll()
                 .requestMatchers("/actuator/health").permitAll()
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
                 
                
                 .requestMatchers(HttpMethod.GET, "/api/product/**").permitAll()
@@ -48,7 +52,8 @@ public class SecurityConfig {
             )
             
             .oauth2ResourceServer(oauth2 -> oauth2
-                .jwt(Customizer.withDefaults())
+                // Rolle wird einmal pro Request aufgelöst (gecacht)
+                .jwt(jwt -> jwt.jwtAuthenticationConverter(new JwtRoleConverter(userPrincipalCache)))
             )
             
             .headers(headers -> headers
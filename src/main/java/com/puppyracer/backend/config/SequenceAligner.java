@@ -0,0 +1,67 @@
+package com.puppyracer.backend.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Die IDs von Product, Review, Order und OrderItem kamen früher aus IDENTITY-Spalten.
+ * Bestehende Datenbanken haben daher Zeilen, deren IDs über dem Startwert der neuen
+ * Sequenzen liegen. Beim Start wird jede Sequenz (falls nötig) hinter die größte
+ * vorhandene ID gesetzt, bevor der DataLoader oder Requests neue Zeilen anlegen.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class SequenceAligner implements CommandLineRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(SequenceAligner.class);
+
+    // muss zu allocationSize der @SequenceGenerator passen
+    private static final int ALLOCATION_SIZE = 50;
+
+    // Sequenz -> Tabelle
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "product_seq", "product",
+            "review_seq", "review",
+            "orders_seq", "orders",
+            "order_items_seq", "order_items");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Dialect dialect;
+
+    public SequenceAligner(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+    }
+
+    @Override
+    public void run(String... args) {
+        SEQUENCES.forEach(this::align);
+    }
+
+    private void align(String sequence, String table) {
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + table, Long.class);
+        if (maxId == null) {
+            return;
+        }
+        // Holt einen Block (Lücke von max. ALLOCATION_SIZE IDs ist unkritisch)
+        Long next = jdbcTemplate.queryForObject(
+                dialect.getSequenceSupport().getSequenceNextValString(sequence), Long.class);
+        // Der pooled-Optimizer vergibt next - ALLOCATION_SIZE + 1 .. next
+        if (next != null && next - ALLOCATION_SIZE >= maxId) {
+            return;
+        }
+        long restart = maxId + ALLOCATION_SIZE;
+        jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + restart);
+        log.info("Sequence {} restarted at {} (max id in {} is {})", sequence, restart, table, maxId);
+    }
+}
@@ -1,32 +1,103 @@
 package com.puppyracer.backend.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.puppyracer.backend.model.Category;
+import com.puppyracer.backend.service.CatalogVersion;
+import com.puppyracer.backend.service.CategoryCounts;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
+// Antworten werden einmal beim Start aus dem Enum serialisiert und als Bytes ausgeliefert
 @RestController
 @RequestMapping("/api/category")
 public class CategoryController {
-    
-    @GetMapping
-    public List<String> getCategories() {
-        return Arrays.stream(Category.values())
+
+    // Kategorien sind fest im Code: ETag ändert sich nur mit einem neuen Deployment
+    private static final String ETAG = "\"categories-" + Integer.toHexString(Arrays.stream(Category.values())
+            .map(category -> category.getApiValue() + "=" + category.getDisplayName())
+            .collect(Collectors.joining(";"))
+            .hashCode()) + "\"";
+
+    private final CategoryCounts categoryCounts;
+    private final CatalogVersion catalogVersion;
+    private final CacheControl cacheControl;
+    private final CacheControl countsCacheControl;
+    private final byte[] categoriesJson;
+    private final byte[] displayNamesJson;
+
+    public CategoryController(CategoryCounts categoryCounts,
+                              CatalogVersion catalogVersion,
+                              ObjectMapper objectMapper,
+                              @Value("${app.http-cache.category-max-age:1h}") Duration maxAge,
+                              @Value("${app.http-cache.catalog-max-age:60s}") Duration catalogMaxAge)
+            throws JsonProcessingException {
+        this.categoryCounts = categoryCounts;
+        this.catalogVersion = catalogVersion;
+        this.cacheControl = CacheControl.maxAge(maxAge).cachePublic();
+        // Zählerstände ändern sich mit dem Katalog
+        this.countsCacheControl = CacheControl.maxAge(catalogMaxAge).cachePublic();
+
+        List<String> apiValues = Arrays.stream(Category.values())
                 .map(Category::getApiValue)
-                .collect(Collectors.toList());
+                .toList();
+        Map<String, String> displayNames = new LinkedHashMap<>();
+        for (Category category : Category.values()) {
+            displayNames.put(category.getApiValue(), category.getDisplayName());
+        }
+        this.categoriesJson = objectMapper.writeValueAsBytes(apiValues);
+        this.displayNamesJson = objectMapper.writeValueAsBytes(displayNames);
+    }
+
+    @GetMapping
+    public ResponseEntity<byte[]> getCategories(WebRequest request) {
+        if (request.checkNotModified(ETAG)) {
+            return notModified(cacheControl);
+        }
+        return json(ETAG, cacheControl, categoriesJson);
     }
-    
+
     @GetMapping("/with-display-names")
-    public Map<String, String> getCategoriesWithDisplayNames() {
-        Map<String, String> categories = new LinkedHashMap<>();
-        categories.put("leinen", "Leinen & Geschirre");
-        categories.put("halsbaender", "Halsbänder & Halsketten");
-        categories.put("bekleidung", "Hundebekleidung");
-        categories.put("snacks", "Leckerlis & Snacks");
-        return categories;
+    public ResponseEntity<byte[]> getCategoriesWithDisplayNames(WebRequest request) {
+        if (request.checkNotModified(ETAG)) {
+            return notModified(cacheControl);
+        }
+        return json(ETAG, cacheControl, displayNamesJson);
+    }
+
+    // Anzahl Produkte pro Kategorie, z.B. {"leinen": 12, ...}
+    @GetMapping("/counts")
+    public ResponseEntity<byte[]> getCategoryCounts(WebRequest request) {
+        // ETag vor den Bytes lesen: die Version steigt erst, nachdem die Zähler aktualisiert sind
+        String etag = catalogVersion.etag();
+        if (request.checkNotModified(etag)) {
+            return notModified(countsCacheControl);
+        }
+        return json(etag, countsCacheControl, categoryCounts.json());
+    }
+
+    private static ResponseEntity<byte[]> json(String etag, CacheControl cacheControl, byte[] body) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .body(body);
+    }
+
+    private static ResponseEntity<byte[]> notModified(CacheControl cacheControl) {
+        // ETag-Header hat checkNotModified bereits gesetzt
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl).build();
     }
 }
@@ -1,21 +1,51 @@
 package com.puppyracer.backend.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.puppyracer.backend.config.JwtRoleConverter;
+import com.puppyracer.backend.dto.CursorPage;
+import com.puppyracer.backend.dto.OrderSummary;
+import com.puppyracer.backend.dto.PageResponse;
 import com.puppyracer.backend.model.Order;
 import com.puppyracer.backend.model.OrderItem;
+import com.puppyracer.backend.model.OrderStatus;
 import com.puppyracer.backend.model.User;
-import com.puppyracer.backend.model.Role;
 import com.puppyracer.backend.repository.OrderRepository;
-import com.puppyracer.backend.repository.UserRepository;
+import com.puppyracer.backend.service.CheckoutService;
+import com.puppyracer.backend.service.IdempotencyStore;
+import com.puppyracer.backend.service.InvalidStatusTransitionException;
+import com.puppyracer.backend.service.OrderExportService;
+import com.puppyracer.backend.service.OrderNumberGenerator;
+import com.puppyracer.backend.service.OrderPipeline;
+import com.puppyracer.backend.service.OrderStatusCounters;
+import com.puppyracer.backend.service.OutOfStockException;
+import com.puppyracer.backend.service.PriceMismatchException;
+import com.puppyracer.backend.service.UserPrincipalCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.net.URI;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -23,42 +53,86 @@ public class OrderController {
     
     private static final Logger log = LoggerFactory.getLogger(OrderController.class);
     
+    private static final String NDJSON = "application/x-ndjson";
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    private static final String PROCESSING = "PROCESSING";
+    private static final String REJECTED = "REJECTED";
+    
     private final OrderRepository orderRepository;
-    private final UserRepository userRepository;
+    private final UserPrincipalCache userPrincipalCache;
+    private final OrderExportService orderExportService;
+    private final OrderNumberGenerator orderNumberGenerator;
+    private final CheckoutService checkoutService;
+    private final IdempotencyStore idempotencyStore;
+    private final OrderPipeline orderPipeline;
+    private final OrderStatusCounters orderStatusCounters;
+    private final ObjectMapper objectMapper;
     
-    public OrderController(OrderRepository orderRepository, UserRepository userRepository) {
+    public OrderController(OrderRepository orderRepository,
+                           UserPrincipalCache userPrincipalCache,
+                           OrderExportService orderExportService,
+                           OrderNumberGenerator orderNumberGenerator,
+                           CheckoutService checkoutService,
+                           IdempotencyStore idempotencyStore,
+                           OrderPipeline orderPipeline,
+                           OrderStatusCounters orderStatusCounters,
+                           ObjectMapper objectMapper) {
         this.orderRepository = orderRepository;
-        this.userRepository = userRepository;
+        this.userPrincipalCache = userPrincipalCache;
+        this.orderExportService = orderExportService;
+        this.orderNumberGenerator = orderNumberGenerator;
+        this.checkoutService = checkoutService;
+        this.idempotencyStore = idempotencyStore;
+        this.orderPipeline = orderPipeline;
+        this.orderStatusCounters = orderStatusCounters;
+        this.objectMapper = objectMapper;
     }
     
+    // Rolle wurde bereits vom JwtRoleConverter aufgelöst
     private boolean userFromJwtIsAdmin(Jwt jwt) {
         if (jwt == null) {
             return false;
         }
-        
-        String oauthId = jwt.getSubject();
-        if (oauthId == null) {
-            return false;
-        }
-        
-        Optional<User> user = userRepository.findByOauthId(oauthId);
-        return user.isPresent() && user.get().getRole() == Role.ADMIN;
+        return JwtRoleConverter.isAdmin(SecurityContextHolder.getContext().getAuthentication());
     }
     
     private User getUserFromJwt(Jwt jwt) {
         String oauthId = jwt.getSubject();
-        return userRepository.findByOauthId(oauthId)
+        return userPrincipalCache.findByOauthId(oauthId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
     }
     
     
     @PostMapping
-    public ResponseEntity<Order> createOrder(
+    public ResponseEntity<?> createOrder(
             @AuthenticationPrincipal Jwt jwt,
-            @RequestBody Order orderRequest) {
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+            @RequestBody byte[] body) {
 
         log.info("POST /api/orders called");
 
+        // Roh-Body wird selbst gelesen, damit der Fingerprint genau das Gesendete abdeckt
+        Order orderRequest;
+        try {
+            orderRequest = objectMapper.readValue(body, Order.class);
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Ungültiger Request-Body"));
+        }
+
+        if (idempotencyKey == null) {
+            return placeOrder(jwt, orderRequest);
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > IdempotencyStore.MAX_KEY_LENGTH) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Ungültiger " + IDEMPOTENCY_KEY));
+        }
+        // Key pro User, damit sich verschiedene Clients nicht gegenseitig treffen
+        return idempotencyStore.execute(jwt.getSubject() + ":" + idempotencyKey,
+                IdempotencyStore.fingerprint(body), () -> placeOrder(jwt, orderRequest));
+    }
+
+    private ResponseEntity<?> placeOrder(Jwt jwt, Order orderRequest) {
         try {
             // 1. Authentifizierten User holen
             User user = getUserFromJwt(jwt);
@@ -73,16 +147,12 @@ public class OrderController {
                 }
             }
 
-            // 4. Status + Nummer + Datum setzen (falls nicht gesetzt)
-            if (orderRequest.getOrderNumber() == null) {
-                orderRequest.setOrderNumber("ORD-" + System.currentTimeMillis() + "-" + (int)(Math.random() * 1000));
-            }
+            // 4. Nummer und Status immer serverseitig vergeben, Datum setzen (falls nicht gesetzt)
+            orderRequest.setOrderNumber(orderNumberGenerator.next());
+            orderRequest.setStatus(OrderStatus.PENDING);
             if (orderRequest.getOrderDate() == null) {
                 orderRequest.setOrderDate(LocalDateTime.now());
             }
-            if (orderRequest.getStatus() == null) {
-                orderRequest.setStatus("PENDING");
-            }
             if (orderRequest.getCountry() == null || orderRequest.getCountry().isEmpty()) {
                 orderRequest.setCountry("Deutschland");
             }
@@ -92,12 +162,43 @@ public class OrderController {
                 orderRequest.setPaymentMethod(orderRequest.getPaymentMethod().toUpperCase());
             }
 
-            // 6. Speichern
-            Order savedOrder = orderRepository.save(orderRequest);
+            // 6a. Asynchron: nur prüfen und einreihen, Status über /number/{orderNumber}
+            if (orderPipeline.isEnabled()) {
+                orderPipeline.submit(orderRequest);
+                log.info("Order queued: {} for user {}", orderRequest.getOrderNumber(), user.getEmail());
+                return ResponseEntity.accepted()
+                        .location(URI.create("/api/orders/number/" + orderRequest.getOrderNumber()))
+                        .body(Map.of("orderNumber", orderRequest.getOrderNumber(), "status", PROCESSING));
+            }
+
+            // 6b. Preise berechnen, Bestand reservieren, speichern (Client-Summen werden nur geprüft)
+            Order savedOrder = checkoutService.placeOrder(orderRequest);
             log.info("Order created: {} for user {}", savedOrder.getOrderNumber(), user.getEmail());
 
             return ResponseEntity.ok(savedOrder);
 
+        } catch (PriceMismatchException e) {
+            log.warn("Order rejected, price mismatch: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                    "error", e.getMessage(),
+                    "subtotal", e.getSubtotal(),
+                    "shippingCost", e.getShippingCost(),
+                    "totalAmount", e.getTotalAmount()));
+        } catch (OutOfStockException e) {
+            log.warn("Order rejected: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", e.getMessage(), "productId", e.getProductId()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (RejectedExecutionException e) {
+            log.warn("Checkout queue full, order rejected");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(Map.of("error", "Zu viele Bestellungen gleichzeitig, bitte erneut versuchen"));
+        } catch (DataIntegrityViolationException e) {
+            log.error("Order conflicts with existing data: {}", e.getMostSpecificCause().getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", "Bestellung konnte nicht gespeichert werden (Konflikt)"));
         } catch (Exception e) {
             log.error("Error creating order: {}", e.getMessage());
             e.printStackTrace();
@@ -115,7 +216,7 @@ public class OrderController {
         
         try {
             User user = getUserFromJwt(jwt);
-            Order order = orderRepository.findById(id)
+            Order order = orderRepository.findWithDetailsById(id)
                     .orElseThrow(() -> new RuntimeException("Bestellung nicht gefunden"));
             
             // Nur Admin oder eigener User darf Bestellung sehen
@@ -132,7 +233,7 @@ public class OrderController {
     }
     
     @GetMapping("/number/{orderNumber}")
-    public ResponseEntity<Order> getOrderByNumber(
+    public ResponseEntity<?> getOrderByNumber(
             @AuthenticationPrincipal Jwt jwt,
             @PathVariable String orderNumber) {
         
@@ -143,7 +244,23 @@ public class OrderController {
             Order order = orderRepository.findByOrderNumber(orderNumber);
             
             if (order == null) {
-                return ResponseEntity.notFound().build();
+                // Asynchroner Checkout: noch in Arbeit oder abgelehnt
+                Optional<OrderPipeline.Pending> pending = orderPipeline.find(orderNumber);
+                if (pending.isPresent()) {
+                    return pending
+                            .filter(p -> userFromJwtIsAdmin(jwt) || p.userId().equals(user.getId()))
+                            .<ResponseEntity<?>>map(p -> p.failed()
+                                    ? ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                                            "orderNumber", orderNumber, "status", REJECTED, "error", p.error()))
+                                    : ResponseEntity.accepted().body(Map.of(
+                                            "orderNumber", orderNumber, "status", PROCESSING)))
+                            .orElse(ResponseEntity.notFound().build());
+                }
+                // Der Worker kann zwischen beiden Abfragen gespeichert und seinen Eintrag entfernt haben
+                order = orderRepository.findByOrderNumber(orderNumber);
+                if (order == null) {
+                    return ResponseEntity.notFound().build();
+                }
             }
             
             // Nur Admin oder eigener User darf Bestellung sehen
@@ -160,7 +277,11 @@ public class OrderController {
     }
     
     @GetMapping("/admin")
-    public ResponseEntity<List<Order>> getAllOrdersAdmin(@AuthenticationPrincipal Jwt jwt) {
+    public ResponseEntity<?> getAllOrdersAdmin(
+            @AuthenticationPrincipal Jwt jwt,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String status) {
         log.info("GET /api/orders/admin called");
         
         if (!userFromJwtIsAdmin(jwt)) {
@@ -168,13 +289,65 @@ public class OrderController {
             return ResponseEntity.status(403).build();
         }
         
+        // Seitenweise (neueste zuerst), optional nach Status gefiltert.
+        // Gesamtzahl kommt aus den Status-Zählern statt aus COUNT(*)
+        if (page != null || size != null || status != null) {
+            OrderStatus filter;
+            try {
+                filter = OrderStatus.fromValue(status);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            }
+            Pageable pageable = PageRequest.of(
+                    page != null ? Math.max(page, 0) : 0,
+                    size != null ? Math.min(Math.max(size, 1), MAX_PAGE_SIZE) : DEFAULT_PAGE_SIZE);
+            Page<Order> orders = filter != null
+                    ? new PageImpl<>(orderRepository.findByStatusOrderByOrderDateDesc(filter, pageable).getContent(),
+                            pageable, orderStatusCounters.count(filter))
+                    : new PageImpl<>(orderRepository.findAllByOrderByOrderDateDesc(pageable).getContent(),
+                            pageable, orderStatusCounters.total());
+            log.info("Returning page {} with {} of {} orders for admin",
+                    orders.getNumber(), orders.getNumberOfElements(), orders.getTotalElements());
+            return ResponseEntity.ok(PageResponse.of(orders));
+        }
+        
         List<Order> orders = orderRepository.findAll();
         log.info("Returning {} orders for admin", orders.size());
         return ResponseEntity.ok(orders);
     }
     
+    @GetMapping("/admin/status-counts")
+    public ResponseEntity<?> getStatusCountsAdmin(@AuthenticationPrincipal Jwt jwt) {
+        if (!userFromJwtIsAdmin(jwt)) {
+            log.error("Access denied - User is not admin");
+            return ResponseEntity.status(403).build();
+        }
+        return ResponseEntity.ok(Map.of(
+                "counts", orderStatusCounters.snapshot(),
+                "total", orderStatusCounters.total()));
+    }
+    
+    @GetMapping(value = "/admin/export", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportOrdersAdmin(@AuthenticationPrincipal Jwt jwt) {
+        log.info("GET /api/orders/admin/export called");
+        
+        if (!userFromJwtIsAdmin(jwt)) {
+            log.error("Access denied - User is not admin");
+            return ResponseEntity.status(403).build();
+        }
+        
+        // Wird direkt in die Response geschrieben, Batch für Batch
+        StreamingResponseBody body = out -> {
+            long count = orderExportService.writeNdjson(out);
+            log.info("Exported {} orders for admin", count);
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .body(body);
+    }
+    
     @PutMapping("/{id}/status")
-    public ResponseEntity<Order> updateOrderStatus(
+    public ResponseEntity<?> updateOrderStatus(
             @AuthenticationPrincipal Jwt jwt,
             @PathVariable Long id,
             @RequestBody StatusUpdateRequest statusUpdate) {
@@ -186,32 +359,78 @@ public class OrderController {
             return ResponseEntity.status(403).build();
         }
         
-        Order order = orderRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Bestellung nicht gefunden"));
-        
-        order.setStatus(statusUpdate.getStatus());
-        Order savedOrder = orderRepository.save(order);
-        
-        return ResponseEntity.ok(savedOrder);
+        // Nur Übergänge laut OrderStatus; Stornieren gibt den Bestand frei
+        try {
+            OrderStatus newStatus = OrderStatus.fromValue(statusUpdate.getStatus());
+            if (newStatus == null) {
+                return ResponseEntity.badRequest().body(Map.of("error", "Status ist erforderlich"));
+            }
+            return checkoutService.changeStatus(id, newStatus)
+                    .<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (InvalidStatusTransitionException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", e.getMessage(), "allowed", e.getFrom().nextStates()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
     }
     
     @GetMapping("/my-orders")
-    public ResponseEntity<List<Order>> getMyOrders(@AuthenticationPrincipal Jwt jwt) {
+    public ResponseEntity<?> getMyOrders(
+            @AuthenticationPrincipal Jwt jwt,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String before) {
         log.info("GET /api/orders/my-orders called");
         
+        User user;
         try {
-            User user = getUserFromJwt(jwt);
+            user = getUserFromJwt(jwt);
             log.info("Found user: {} (Role: {})", user.getEmail(), user.getRole());
-            
-            List<Order> orders = orderRepository.findByUser(user);
-            
-            log.info("Returning {} orders for user {}", orders.size(), user.getEmail());
-            return ResponseEntity.ok(orders);
-            
         } catch (Exception e) {
             log.error("Error getting user orders: {}", e.getMessage());
             return ResponseEntity.status(403).build();
         }
+        
+        // Keyset-Modus: ?before=&size=.. (erste Seite), danach ?before=<nextCursor>; nur Kurzfassungen
+        if (before != null) {
+            try {
+                return ResponseEntity.ok(getOrderSummariesBefore(user.getId(), before,
+                        size != null ? Math.min(Math.max(size, 1), MAX_PAGE_SIZE) : DEFAULT_PAGE_SIZE));
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", "Ungültiger Cursor: " + before));
+            }
+        }
+        
+        // Ohne Parameter: bisheriges Verhalten (komplette Liste inkl. Positionen), neueste zuerst
+        List<Order> orders = orderRepository.findByUserIdOrderByOrderDateDesc(user.getId());
+        
+        log.info("Returning {} orders for user {}", orders.size(), user.getEmail());
+        return ResponseEntity.ok(orders);
+    }
+    
+    // Cursor = "<orderDate>_<id>" der letzten Bestellung der vorherigen Seite
+    private CursorPage<OrderSummary> getOrderSummariesBefore(Long userId, String cursor, int size) {
+        List<OrderSummary> orders;
+        if (cursor.isBlank()) {
+            orders = orderRepository.findSummariesByUserId(userId, Limit.of(size));
+        } else {
+            int separator = cursor.lastIndexOf('_');
+            if (separator < 0) {
+                throw new IllegalArgumentException(cursor);
+            }
+            LocalDateTime orderDate = LocalDateTime.parse(cursor.substring(0, separator));
+            Long id = Long.valueOf(cursor.substring(separator + 1));
+            orders = orderRepository.findSummariesByUserIdBefore(userId, orderDate, id, Limit.of(size));
+        }
+        
+        // Volle Seite -> es kann weitere Bestellungen geben
+        String nextCursor = null;
+        if (orders.size() == size) {
+            OrderSummary last = orders.get(orders.size() - 1);
+            nextCursor = last.orderDate() + "_" + last.id();
+        }
+        return new CursorPage<>(orders, size, nextCursor);
     }
 
     
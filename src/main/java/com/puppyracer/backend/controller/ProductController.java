@@ -1,68 +1,181 @@
 package com.puppyracer.backend.controller;
 
+import com.puppyracer.backend.config.JwtRoleConverter;
+import com.puppyracer.backend.dto.CursorPage;
+import com.puppyracer.backend.dto.ImportReport;
+import com.puppyracer.backend.dto.PageResponse;
 import com.puppyracer.backend.model.*;
 import com.puppyracer.backend.repository.*;
+import com.puppyracer.backend.service.CatalogVersion;
+import com.puppyracer.backend.service.ProductAutocomplete;
+import com.puppyracer.backend.service.ProductBulkService;
+import com.puppyracer.backend.service.ProductCatalogCache;
+import com.puppyracer.backend.service.ProductChangedEvent;
+import com.puppyracer.backend.service.ProductJsonSnapshot;
+import com.puppyracer.backend.service.ProductSearchIndex;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
 import java.util.*;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/product")
 public class ProductController {
 
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    // API-Name -> Entity-Property
+    private static final Map<String, String> SORTABLE_FIELDS = Map.of(
+            "id", "id",
+            "title", "title",
+            "price", "price",
+            "rating", "rating.average");
+    private static final int DEFAULT_SUGGESTIONS = 8;
+    private static final int MAX_SUGGESTIONS = 20;
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String CSV = "text/csv";
+
     private final ProductRepository productRepository;
-    private final UserRepository userRepository;
+    private final ProductCatalogCache productCatalogCache;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductAutocomplete productAutocomplete;
+    private final ProductBulkService productBulkService;
+    private final CatalogVersion catalogVersion;
+    private final ProductJsonSnapshot productJsonSnapshot;
+    private final CacheControl catalogCacheControl;
 
-    public ProductController(ProductRepository productRepository, 
-                            UserRepository userRepository) {
+    public ProductController(ProductRepository productRepository,
+                            ProductCatalogCache productCatalogCache,
+                            ProductSearchIndex productSearchIndex,
+                            ProductAutocomplete productAutocomplete,
+                            ProductBulkService productBulkService,
+                            CatalogVersion catalogVersion,
+                            ProductJsonSnapshot productJsonSnapshot,
+                            @Value("${app.http-cache.catalog-max-age:60s}") Duration catalogMaxAge) {
         this.productRepository = productRepository;
-        this.userRepository = userRepository;
+        this.productCatalogCache = productCatalogCache;
+        this.productSearchIndex = productSearchIndex;
+        this.productAutocomplete = productAutocomplete;
+        this.productBulkService = productBulkService;
+        this.catalogVersion = catalogVersion;
+        this.productJsonSnapshot = productJsonSnapshot;
+        this.catalogCacheControl = CacheControl.maxAge(catalogMaxAge).cachePublic();
     }
 
+    // Rolle wurde bereits vom JwtRoleConverter aufgelöst
     private boolean userFromJwtIsAdmin(Jwt jwt) {
         if (jwt == null || jwt.getSubject() == null) {
             return false;
         }
-        Optional<User> user = userRepository.findByOauthId(jwt.getSubject());
-        return user.isPresent() && user.get().getRole() == Role.ADMIN;
+        return JwtRoleConverter.isAdmin(SecurityContextHolder.getContext().getAuthentication());
     }
 
 
     @GetMapping
-    public ResponseEntity<List<Product>> getProducts(
+    public ResponseEntity<?> getProducts(
+            WebRequest request,
             @RequestParam(required = false) String name,
-            @RequestParam(required = false) String category) {
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) Long after) {
+        
+        // Snapshot-Modus: Gesamt- und Kategorie-Liste als fertige Bytes
+        boolean plainListing = (name == null || name.trim().isEmpty())
+                && page == null && size == null && sort == null && after == null;
+        if (plainListing && productJsonSnapshot.isReady()) {
+            try {
+                Category catEnum = category != null && !category.trim().isEmpty()
+                        ? Category.fromApiValue(category.toLowerCase())
+                        : null;
+                return snapshotResponse(request, productJsonSnapshot.isGzipEnabled(), () -> catEnum != null
+                        ? productJsonSnapshot.byCategory(catEnum)
+                        : productJsonSnapshot.all());
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(null);
+            }
+        }
+        
+        // Unveränderter Katalog -> 304 ohne Repository-Zugriff
+        String etag = catalogVersion.etag();
+        if (request.checkNotModified(etag)) {
+            return notModified();
+        }
         
         try {
+            boolean hasName = name != null && !name.trim().isEmpty();
+            Category catEnum = category != null && !category.trim().isEmpty()
+                    ? Category.fromApiValue(category.toLowerCase())
+                    : null;
+            
+            // Keyset-Modus: ?after=<letzte ID>&size=..
+            if (after != null) {
+                if (hasName) {
+                    return ResponseEntity.badRequest()
+                            .body(Map.of("error", "Cursor-Modus unterstützt keine Namenssuche"));
+                }
+                return catalogResponse(etag, getProductsAfter(catEnum, after, pageSize(size)));
+            }
+            
+            // Offset-Modus: ?page=..&size=..&sort=feld,richtung
+            if (page != null || size != null || sort != null) {
+                Pageable pageable = PageRequest.of(
+                        page != null ? Math.max(page, 0) : 0, pageSize(size), parseSort(sort));
+                Page<Product> result;
+                if (hasName) {
+                    // Suchtreffer sind nach Relevanz sortiert
+                    List<Product> hits = searchProducts(name, catEnum);
+                    int from = (int) Math.min(pageable.getOffset(), hits.size());
+                    int to = Math.min(from + pageable.getPageSize(), hits.size());
+                    result = new PageImpl<>(hits.subList(from, to), pageable, hits.size());
+                } else if (catEnum != null) {
+                    result = productRepository.findByCategory(catEnum, pageable);
+                } else {
+                    result = productRepository.findAll(pageable);
+                }
+                return catalogResponse(etag, PageResponse.of(result));
+            }
+            
             List<Product> products;
             
-            if (name != null && !name.trim().isEmpty() && 
-                category != null && !category.trim().isEmpty()) {
-                // Suche nach Name UND Kategorie
-                Category catEnum = Category.fromApiValue(category.toLowerCase());
-                products = productRepository.findByTitleContainingIgnoreCaseAndCategory(name, catEnum);
-                    
-            } else if (name != null && !name.trim().isEmpty()) {
-                // Suche nur nach Name
-                products = productRepository.findByTitleContainingIgnoreCase(name);
+            if (hasName) {
+                // Volltextsuche, optional mit Kategorie
+                products = searchProducts(name, catEnum);
                 
-            } else if (category != null && !category.trim().isEmpty()) {
-                // Suche nur nach Kategorie
-                Category catEnum = Category.fromApiValue(category.toLowerCase());
-                products = productRepository.findByCategory(catEnum);
+            } else if (catEnum != null) {
+                // Suche nur nach Kategorie (aus dem Katalog-Cache)
+                products = productCatalogCache.findByCategory(catEnum);
                 
             } else {
-                // Alle Produkte
-                products = productRepository.findAll();
+                // Alle Produkte (aus dem Katalog-Cache)
+                products = productCatalogCache.findAll();
             }
             
-            return ResponseEntity.ok(products);
+            return catalogResponse(etag, products);
             
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(null);
@@ -71,12 +184,235 @@ public class ProductController {
         }
     }
     
+    @GetMapping("/search")
+    public ResponseEntity<List<Product>> search(
+            @RequestParam String q,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) Integer limit) {
+        
+        try {
+            Category catEnum = category != null && !category.trim().isEmpty()
+                    ? Category.fromApiValue(category.toLowerCase())
+                    : null;
+            List<Product> hits = searchProducts(q, catEnum);
+            return ResponseEntity.ok(hits.subList(0, Math.min(hits.size(), pageSize(limit))));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(null);
+        }
+    }
+    
+    @GetMapping("/top-rated")
+    public ResponseEntity<List<Product>> getTopRated(
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) Integer limit) {
+        
+        try {
+            Category catEnum = category != null && !category.trim().isEmpty()
+                    ? Category.fromApiValue(category.toLowerCase())
+                    : null;
+            Limit top = Limit.of(pageSize(limit));
+            // Nur Produkte mit mindestens einer Bewertung
+            List<Product> products = catEnum != null
+                    ? productRepository.findByCategoryAndRatingCountGreaterThanOrderByRatingAverageDescRatingCountDesc(catEnum, 0, top)
+                    : productRepository.findByRatingCountGreaterThanOrderByRatingAverageDescRatingCountDesc(0, top);
+            return ResponseEntity.ok(products);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(null);
+        }
+    }
+    
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<ProductAutocomplete.Suggestion>> autocomplete(
+            @RequestParam String prefix,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) Integer limit) {
+        
+        try {
+            Category catEnum = category != null && !category.trim().isEmpty()
+                    ? Category.fromApiValue(category.toLowerCase())
+                    : null;
+            int k = limit != null ? Math.min(Math.max(limit, 1), MAX_SUGGESTIONS) : DEFAULT_SUGGESTIONS;
+            return ResponseEntity.ok(productAutocomplete.suggest(prefix, catEnum, k));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(null);
+        }
+    }
+    
+    // Volltextsuche über Titel und Beschreibung; solange der Index noch aufgebaut wird, LIKE-Suche auf dem Titel
+    private List<Product> searchProducts(String name, Category category) {
+        if (!productSearchIndex.isReady()) {
+            return category != null
+                    ? productRepository.findByTitleContainingIgnoreCaseAndCategory(name, category)
+                    : productRepository.findByTitleContainingIgnoreCase(name);
+        }
+        return productSearchIndex.search(name, category);
+    }
+    
+    private CursorPage<Product> getProductsAfter(Category category, long after, int size) {
+        List<Product> products = category != null
+                ? productRepository.findByCategoryAndIdGreaterThanOrderByIdAsc(category, after, Limit.of(size))
+                : productRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(size));
+        
+        // Volle Seite -> es kann weitere Einträge geben
+        String nextCursor = products.size() == size
+                ? String.valueOf(products.get(products.size() - 1).getId())
+                : null;
+        return new CursorPage<>(products, size, nextCursor);
+    }
+    
+    private int pageSize(Integer size) {
+        if (size == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+    }
+    
+    // Erlaubt nur bekannte Felder, z.B. "price,desc"
+    private Sort parseSort(String sort) {
+        if (sort == null || sort.trim().isEmpty()) {
+            return Sort.by("id");
+        }
+        String[] parts = sort.split(",");
+        String property = SORTABLE_FIELDS.get(parts[0].trim());
+        if (property == null) {
+            throw new IllegalArgumentException("Unbekanntes Sortierfeld: " + parts[0].trim());
+        }
+        Sort.Direction direction = parts.length > 1 && parts[1].trim().equalsIgnoreCase("desc")
+                ? Sort.Direction.DESC
+                : Sort.Direction.ASC;
+        // ID als Tiebreaker für stabile Reihenfolge
+        return Sort.by(direction, property).and(Sort.by("id"));
+    }
+    
+    // Bulk-Import: JSON-Array oder CSV (mit Kopfzeile), wird gestreamt verarbeitet
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_JSON_VALUE, CSV})
+    public ResponseEntity<?> importProducts(
+            @AuthenticationPrincipal Jwt jwt,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) throws IOException {
+        
+        if (!userFromJwtIsAdmin(jwt)) {
+            return ResponseEntity.status(403).body(Map.of("error", "Nur Administratoren dürfen Produkte importieren"));
+        }
+        
+        try {
+            ImportReport report = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.parseMediaType(CSV))
+                    ? productBulkService.importCsv(body)
+                    : productBulkService.importJson(body);
+            return ResponseEntity.ok(report);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    // Bulk-Export: ?format=ndjson (Standard) oder ?format=csv, Batch für Batch gestreamt
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @AuthenticationPrincipal Jwt jwt,
+            @RequestParam(defaultValue = "ndjson") String format) {
+        
+        if (!userFromJwtIsAdmin(jwt)) {
+            return ResponseEntity.status(403).build();
+        }
+        
+        boolean csv = format.equalsIgnoreCase("csv");
+        if (!csv && !format.equalsIgnoreCase("ndjson")) {
+            return ResponseEntity.badRequest().build();
+        }
+        StreamingResponseBody body = out -> {
+            if (csv) {
+                productBulkService.writeCsv(out);
+            } else {
+                productBulkService.writeNdjson(out);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(csv ? CSV + ";charset=UTF-8" : NDJSON))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=products." + (csv ? "csv" : "ndjson"))
+                .body(body);
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<Product> getById(@PathVariable Long id) {
-        return productRepository.findById(id)
-                .map(ResponseEntity::ok)
+    public ResponseEntity<?> getById(WebRequest request, @PathVariable Long id) {
+        if (productJsonSnapshot.isReady()) {
+            // Einzelprodukte gibt es nur unkomprimiert
+            return snapshotResponse(request, false, () -> productJsonSnapshot.product(id));
+        }
+        String etag = catalogVersion.etag();
+        if (request.checkNotModified(etag)) {
+            return notModified();
+        }
+        return productCatalogCache.findById(id)
+                .map(product -> catalogResponse(etag, product))
                 .orElse(ResponseEntity.notFound().build());
     }
+    
+    // Browser/CDN dürfen kurz cachen und danach per If-None-Match nachfragen
+    private <T> ResponseEntity<T> catalogResponse(String etag, T body) {
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(catalogCacheControl)
+                .body(body);
+    }
+    
+    // Bytes aus dem Snapshot, gzip-Variante wenn vorhanden und vom Client akzeptiert; null -> 404
+    private ResponseEntity<byte[]> snapshotResponse(WebRequest request, boolean compressed,
+                                                    Supplier<ProductJsonSnapshot.Encoded> snapshot) {
+        boolean gzip = compressed && acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        // ETag vor den Bytes lesen: die Version steigt erst, nachdem der Snapshot aktualisiert ist.
+        // Eigener ETag je Variante, da die Bytes sich unterscheiden
+        String etag = gzip ? catalogVersion.etag().replaceFirst("\"$", "-gzip\"") : catalogVersion.etag();
+        if (request.checkNotModified(etag)) {
+            return notModified();
+        }
+        ProductJsonSnapshot.Encoded encoded = snapshot.get();
+        if (encoded == null) {
+            return ResponseEntity.notFound().build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(etag)
+                .cacheControl(catalogCacheControl);
+        if (productJsonSnapshot.isGzipEnabled()) {
+            response.varyBy(HttpHeaders.ACCEPT_ENCODING);
+        }
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(gzip ? encoded.gzip() : encoded.json());
+    }
+    
+    // "gzip" in Accept-Encoding, aber nicht mit q=0 (= ausdrücklich abgelehnt)
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            if (!parts[0].trim().equalsIgnoreCase("gzip")) {
+                continue;
+            }
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        return Double.parseDouble(param.substring(2)) > 0;
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+    
+    // ETag-Header hat checkNotModified bereits gesetzt
+    private <T> ResponseEntity<T> notModified() {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .cacheControl(catalogCacheControl)
+                .build();
+    }
 
     @PostMapping
     public ResponseEntity<?> createProduct(
@@ -101,6 +437,7 @@ public class ProductController {
         
         try {
             Product savedProduct = productRepository.save(product);
+            catalogVersion.publish(ProductChangedEvent.saved(savedProduct, null));
             return ResponseEntity.status(201).body(savedProduct);
         } catch (Exception e) {
             return ResponseEntity.internalServerError()
@@ -127,14 +464,21 @@ public class ProductController {
         
         return productRepository.findById(id)
                 .map(existing -> {
+                    Category previousCategory = existing.getCategory();
+                    
                     // 3. Nur erlaubte Felder aktualisieren
                     existing.setTitle(product.getTitle());
                     existing.setDescription(product.getDescription());
                     existing.setCategory(product.getCategory());
                     existing.setPrice(product.getPrice());
                     existing.setImageUrl(product.getImageUrl());
+                    // Ohne stock im Body bleibt der Bestand unverändert (ältere Clients senden ihn nicht)
+                    if (product.getStock() != null) {
+                        existing.setStock(product.getStock());
+                    }
                     
                     Product saved = productRepository.save(existing);
+                    catalogVersion.publish(ProductChangedEvent.saved(saved, previousCategory));
                     return ResponseEntity.ok(saved);
                 })
                 .orElse(ResponseEntity.notFound().build());
@@ -151,12 +495,14 @@ public class ProductController {
         }
         
         // 2. Existenzprüfung
-        if (!productRepository.existsById(id)) {
+        Optional<Product> existing = productRepository.findById(id);
+        if (existing.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
         
         try {
             productRepository.deleteById(id);
+            catalogVersion.publish(ProductChangedEvent.deleted(id, existing.get().getCategory()));
             return ResponseEntity.noContent().build();
         } catch (Exception e) {
             return ResponseEntity.internalServerError()
@@ -2,6 +2,7 @@ package com.puppyracer.backend.controller;
 
 import com.puppyracer.backend.model.User;
 import com.puppyracer.backend.repository.UserRepository;
+import com.puppyracer.backend.service.UserPrincipalCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -15,6 +16,9 @@ public class ProfileController {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private UserPrincipalCache userPrincipalCache;
+    
     @GetMapping
     public ResponseEntity<User> getProfile(@AuthenticationPrincipal Jwt jwt) {
         String oauthId = jwt.getSubject();
@@ -22,7 +26,7 @@ public class ProfileController {
             return ResponseEntity.badRequest().build();
         }
         
-        return userRepository.findByOauthId(oauthId)
+        return userPrincipalCache.findByOauthId(oauthId)
             .map(ResponseEntity::ok)
             .orElse(ResponseEntity.notFound().build());
     }
@@ -47,7 +51,9 @@ public class ProfileController {
                     user.setEmail(updatedUser.getEmail());
                 }
                 // Rolle kann NUR Admin ändern (separater Endpoint)
-                return ResponseEntity.ok(userRepository.save(user));
+                User saved = userRepository.save(user);
+                userPrincipalCache.evict(oauthId);
+                return ResponseEntity.ok(saved);
             })
             .orElse(ResponseEntity.notFound().build());
     }
@@ -1,28 +1,45 @@
 package com.puppyracer.backend.controller;
 
+import com.puppyracer.backend.dto.CursorPage;
+import com.puppyracer.backend.dto.PageResponse;
+import com.puppyracer.backend.dto.ReviewView;
 import com.puppyracer.backend.model.Review;
 import com.puppyracer.backend.model.User;
 import com.puppyracer.backend.repository.ReviewRepository;
-import com.puppyracer.backend.repository.UserRepository;
+import com.puppyracer.backend.service.ReviewService;
+import com.puppyracer.backend.service.UserPrincipalCache;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/review")
 public class ReviewController {
 
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final ReviewRepository reviewRepository;
-    private final UserRepository userRepository; // Neu hinzufügen
+    private final ReviewService reviewService;
+    private final UserPrincipalCache userPrincipalCache;
     
-    public ReviewController(ReviewRepository reviewRepository, UserRepository userRepository) {
+    public ReviewController(ReviewRepository reviewRepository,
+                            ReviewService reviewService,
+                            UserPrincipalCache userPrincipalCache) {
         this.reviewRepository = reviewRepository;
-        this.userRepository = userRepository; // Neu
+        this.reviewService = reviewService;
+        this.userPrincipalCache = userPrincipalCache;
     }
 
     @PostMapping
@@ -33,30 +50,89 @@ public class ReviewController {
         
         // User aus JWT finden
         String oauthId = jwt.getSubject();
-        Optional<User> userOpt = userRepository.findByOauthId(oauthId);
+        Optional<User> userOpt = userPrincipalCache.findByOauthId(oauthId);
         
         if (userOpt.isEmpty()) {
             return ResponseEntity.status(403).build();
         }
         
+        // Produkt und Sternzahl werden für die Bewertungsaggregate benötigt
+        if (review.getProduct() == null || review.getProduct().getId() == null
+                || review.getStars() < 1 || review.getStars() > 5) {
+            return ResponseEntity.badRequest().build();
+        }
+        
         // User zum Review hinzufügen
         review.setUser(userOpt.get());
-        return ResponseEntity.ok(reviewRepository.save(review));
+        return ResponseEntity.ok(reviewService.create(review));
     }
 
     @GetMapping("/product/{productId}")
-    public List<Review> getByProduct(@PathVariable Long productId) {
+    public ResponseEntity<?> getByProduct(
+            @PathVariable Long productId,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String before) {
         // Öffentlich lesbar
-        return reviewRepository.findByProductId(productId);
+        try {
+            // Keyset-Modus: ?before=&size=.. (erste Seite), danach ?before=<nextCursor>
+            if (before != null) {
+                return ResponseEntity.ok(getReviewsBefore(productId, before, pageSize(size)));
+            }
+            
+            // Offset-Modus: ?page=0&size=20, neueste zuerst
+            if (page != null || size != null) {
+                Pageable pageable = PageRequest.of(page != null ? Math.max(page, 0) : 0, pageSize(size));
+                return ResponseEntity.ok(PageResponse.of(
+                        reviewRepository.findViewsByProductIdOrderByCreatedAtDesc(productId, pageable)));
+            }
+            
+            // Ohne Parameter: bisheriges Verhalten (komplette Liste)
+            return ResponseEntity.ok(reviewRepository.findByProductId(productId));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Ungültiger Cursor: " + before));
+        }
+    }
+    
+    // Cursor = "<createdAt>_<id>" des letzten Eintrags der vorherigen Seite
+    private CursorPage<ReviewView> getReviewsBefore(Long productId, String cursor, int size) {
+        if (cursor.isBlank()) {
+            List<ReviewView> reviews = reviewRepository.findViewsByProductId(productId, Limit.of(size));
+            return new CursorPage<>(reviews, size, nextCursor(reviews, size));
+        }
+        int separator = cursor.lastIndexOf('_');
+        if (separator < 0) {
+            throw new IllegalArgumentException(cursor);
+        }
+        LocalDateTime createdAt = LocalDateTime.parse(cursor.substring(0, separator));
+        Long id = Long.valueOf(cursor.substring(separator + 1));
+        
+        List<ReviewView> reviews = reviewRepository.findViewsByProductIdBefore(productId, createdAt, id, Limit.of(size));
+        return new CursorPage<>(reviews, size, nextCursor(reviews, size));
+    }
+    
+    // Volle Seite -> es kann weitere Einträge geben
+    private static String nextCursor(List<ReviewView> reviews, int size) {
+        if (reviews.size() < size) {
+            return null;
+        }
+        ReviewView last = reviews.get(reviews.size() - 1);
+        return last.createdAt() + "_" + last.id();
+    }
+    
+    private int pageSize(Integer size) {
+        if (size == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
     }
 
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')") // Nur Admin kann löschen
     public ResponseEntity<Void> delete(@PathVariable Long id) {
-        if (!reviewRepository.existsById(id)) {
+        if (!reviewService.delete(id)) {
             return ResponseEntity.notFound().build();
         }
-        reviewRepository.deleteById(id);
         return ResponseEntity.noContent().build();
     }
 }
\ No newline at end of file
@@ -0,0 +1,72 @@
+package com.puppyracer.backend.controller;
+
+import com.puppyracer.backend.dto.CategorySales;
+import com.puppyracer.backend.dto.ProductSales;
+import com.puppyracer.backend.service.SalesAnalytics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+// Umsatzstatistik aus den Aggregaten im Speicher, keine Abfrage über alle Bestellungen
+@RestController
+@RequestMapping("/api/orders/admin/analytics")
+@PreAuthorize("hasRole('ADMIN')")
+public class SalesAnalyticsController {
+
+    private static final Logger log = LoggerFactory.getLogger(SalesAnalyticsController.class);
+
+    private static final int DEFAULT_DAYS = 30;
+    private static final int MAX_DAYS = 366;
+    private static final int DEFAULT_TOP = 10;
+    private static final int MAX_TOP = 100;
+
+    private final SalesAnalytics salesAnalytics;
+
+    public SalesAnalyticsController(SalesAnalytics salesAnalytics) {
+        this.salesAnalytics = salesAnalytics;
+    }
+
+    // Standard: die letzten 30 Tage bis heute
+    @GetMapping("/daily")
+    public ResponseEntity<?> getDaily(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(DEFAULT_DAYS - 1);
+        if (start.isAfter(end) || ChronoUnit.DAYS.between(start, end) >= MAX_DAYS) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "Zeitraum muss zwischen 1 und " + MAX_DAYS + " Tagen liegen"));
+        }
+        return ResponseEntity.ok(salesAnalytics.daily(start, end));
+    }
+
+    @GetMapping("/categories")
+    public List<CategorySales> getByCategory() {
+        return salesAnalytics.byCategory();
+    }
+
+    @GetMapping("/top-products")
+    public List<ProductSales> getTopProducts(@RequestParam(required = false) Integer limit) {
+        int top = limit != null ? Math.min(Math.max(limit, 1), MAX_TOP) : DEFAULT_TOP;
+        return salesAnalytics.topProducts(top);
+    }
+
+    // Einmaliger Neuaufbau, z.B. nach Datenimport direkt in die DB
+    @PostMapping("/rebuild")
+    public ResponseEntity<?> rebuild() {
+        log.info("POST /api/orders/admin/analytics/rebuild called");
+        return salesAnalytics.rebuild()
+                .<ResponseEntity<?>>map(count -> ResponseEntity.ok(Map.of("orders", count)))
+                .orElse(ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body(Map.of("error", "Neuaufbau läuft bereits")));
+    }
+}
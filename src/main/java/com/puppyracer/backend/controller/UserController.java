@@ -3,6 +3,7 @@ package com.puppyracer.backend.controller;
 import com.puppyracer.backend.model.User;
 import com.puppyracer.backend.model.Role;
 import com.puppyracer.backend.repository.UserRepository;
+import com.puppyracer.backend.service.UserPrincipalCache;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -17,10 +18,12 @@ import java.util.Optional;
 public class UserController {
     
     private final UserRepository userRepository;
+    private final UserPrincipalCache userPrincipalCache;
     
     // Constructor Injection (besser als @Autowired)
-    public UserController(UserRepository userRepository) {
+    public UserController(UserRepository userRepository, UserPrincipalCache userPrincipalCache) {
         this.userRepository = userRepository;
+        this.userPrincipalCache = userPrincipalCache;
     }
     
     // NUR FÜR ADMINS: Alle Benutzer anzeigen
@@ -50,6 +53,7 @@ public class UserController {
         user.setRole(updatedUser.getRole());  
         
         User savedUser = userRepository.save(user);
+        userPrincipalCache.evict(savedUser.getOauthId());
         return ResponseEntity.ok(savedUser);
     }
     
@@ -57,10 +61,12 @@ public class UserController {
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Void> deleteUser(@PathVariable Long id) {
-        if (!userRepository.existsById(id)) {
+        Optional<User> optionalUser = userRepository.findById(id);
+        if (optionalUser.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
-        userRepository.deleteById(id);
+        userRepository.delete(optionalUser.get());
+        userPrincipalCache.evict(optionalUser.get().getOauthId());
         return ResponseEntity.noContent().build();
     }
 }
\ No newline at end of file
@@ -0,0 +1,9 @@
+package com.puppyracer.backend.dto;
+
+import com.puppyracer.backend.model.Category;
+
+/**
+ * Anzahl Produkte pro Kategorie (GROUP BY-Projektion).
+ */
+public record CategoryCount(Category category, long count) {
+}
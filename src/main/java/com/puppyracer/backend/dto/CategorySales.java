@@ -0,0 +1,9 @@
+package com.puppyracer.backend.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Verkäufe einer Kategorie (Positionssummen ohne Versand).
+ */
+public record CategorySales(String category, String displayName, long orders, long quantity, BigDecimal revenue) {
+}
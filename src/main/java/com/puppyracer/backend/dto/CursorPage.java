@@ -0,0 +1,13 @@
+package com.puppyracer.backend.dto;
+
+import java.util.List;
+
+/**
+ * Seitenweise Antwort für Keyset-Pagination.
+ * nextCursor ist null, wenn keine weiteren Einträge existieren.
+ */
+public record CursorPage<T>(
+        List<T> content,
+        int size,
+        String nextCursor) {
+}
@@ -0,0 +1,10 @@
+package com.puppyracer.backend.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Umsatz eines Tages (Gesamtbeträge inkl. Versand).
+ */
+public record DailySales(LocalDate date, long orders, BigDecimal revenue) {
+}
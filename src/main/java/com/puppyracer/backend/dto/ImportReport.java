@@ -0,0 +1,19 @@
+package com.puppyracer.backend.dto;
+
+import java.util.List;
+
+/**
+ * Ergebnis eines Bulk-Imports. errors enthält höchstens die ersten
+ * gemeldeten Fehler, failed zählt alle fehlerhaften Zeilen.
+ */
+public record ImportReport(
+        long processed,
+        long created,
+        long updated,
+        long failed,
+        List<RowError> errors) {
+
+    // row = Position im Import (1-basiert, ohne CSV-Kopfzeile)
+    public record RowError(long row, String message) {
+    }
+}
@@ -0,0 +1,21 @@
+package com.puppyracer.backend.dto;
+
+import com.puppyracer.backend.model.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Kurzfassung einer Bestellung für die Bestellhistorie; wird per JPQL-Projektion
+ * befüllt. Details (Positionen, Adresse) über GET /api/orders/{id}.
+ *
+ * @param itemCount Summe der bestellten Mengen
+ */
+public record OrderSummary(
+        Long id,
+        String orderNumber,
+        LocalDateTime orderDate,
+        BigDecimal totalAmount,
+        OrderStatus status,
+        long itemCount) {
+}
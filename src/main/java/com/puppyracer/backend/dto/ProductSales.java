@@ -0,0 +1,9 @@
+package com.puppyracer.backend.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Verkäufe eines Produkts (Positionssummen ohne Versand).
+ */
+public record ProductSales(Long productId, String productName, long orders, long quantity, BigDecimal revenue) {
+}
@@ -0,0 +1,15 @@
+package com.puppyracer.backend.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Schlanke Review-Darstellung für Listen; wird direkt per JPQL-Projektion
+ * befüllt, ohne Review- oder User-Entities zu laden.
+ */
+public record ReviewView(
+        Long id,
+        int stars,
+        String text,
+        LocalDateTime createdAt,
+        String userName) {
+}
@@ -0,0 +1,9 @@
+package com.puppyracer.backend.dto;
+
+import com.puppyracer.backend.model.OrderStatus;
+
+/**
+ * Anzahl Bestellungen pro Status (GROUP BY-Projektion).
+ */
+public record StatusCount(OrderStatus status, long count) {
+}
@@ -1,5 +1,9 @@
 package com.puppyracer.backend.model;
 
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
 public enum Category {
 
     LEINEN("leinen", "Leinen & Geschirre"),
@@ -23,18 +27,25 @@ public enum Category {
         return displayName;
     }
     
-    // Konvertiert String zu Enum
+    // Lookup-Tabelle für fromApiValue (Schlüssel klein geschrieben)
+    private static final Map<String, Category> BY_API_VALUE = new HashMap<>();
+    
+    static {
+        for (Category cat : values()) {
+            BY_API_VALUE.put(cat.apiValue.toLowerCase(Locale.ROOT), cat);
+        }
+    }
+    
+    // Konvertiert String zu Enum (Groß-/Kleinschreibung egal)
     public static Category fromApiValue(String apiValue) {
         if (apiValue == null || apiValue.trim().isEmpty()) {
             return null;
         }
         
-        for (Category cat : Category.values()) {
-            if (cat.apiValue.equalsIgnoreCase(apiValue)) {
-                return cat;
-            }
+        Category cat = BY_API_VALUE.get(apiValue.toLowerCase(Locale.ROOT));
+        if (cat == null) {
+            throw new IllegalArgumentException("Unbekannte Kategorie: " + apiValue);
         }
-        
-        throw new IllegalArgumentException("Unbekannte Kategorie: " + apiValue);
+        return cat;
     }
 }
\ No newline at end of file
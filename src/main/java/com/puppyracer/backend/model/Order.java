@@ -3,19 +3,29 @@ package com.puppyracer.backend.model;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import org.hibernate.annotations.BatchSize;
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        // Admin-Übersicht: WHERE status = ? ORDER BY order_date DESC
+        @Index(name = "idx_orders_status_date", columnList = "status, order_date"),
+        // Bestellhistorie: WHERE user_id = ? ORDER BY order_date DESC, id DESC
+        @Index(name = "idx_orders_user_date", columnList = "user_id, order_date, id")
+})
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Order {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Sequenz mit Blockvergabe (pooled): IDs ohne DB-Roundtrip, damit Order + Items gebatcht eingefügt werden
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_seq")
+    @SequenceGenerator(name = "order_seq", sequenceName = "orders_seq", allocationSize = 50)
     private Long id;
     
+    // Wird serverseitig vom OrderNumberGenerator vergeben
     @Column(unique = true, nullable = false)
     private String orderNumber;
     
@@ -29,18 +39,23 @@ public class Order {
     
     @NotNull(message = "Zwischensumme ist erforderlich")
     @DecimalMin(value = "0.01", message = "Zwischensumme muss mindestens 0.01 € sein")
-    private Double subtotal;
+    @Column(precision = 10, scale = 2)
+    private BigDecimal subtotal;
     
     @NotNull(message = "Versandkosten sind erforderlich")
     @DecimalMin(value = "0.00", message = "Versandkosten dürfen nicht negativ sein")
-    private Double shippingCost;
+    @Column(precision = 10, scale = 2)
+    private BigDecimal shippingCost;
     
     @NotNull(message = "Gesamtbetrag ist erforderlich")
     @DecimalMin(value = "0.01", message = "Gesamtbetrag muss mindestens 0.01 € sein")
-    private Double totalAmount;
+    @Column(precision = 10, scale = 2)
+    private BigDecimal totalAmount;
     
-    @NotBlank(message = "Status ist erforderlich")
-    private String status = "PENDING"; // Standardwert
+    @NotNull(message = "Status ist erforderlich")
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private OrderStatus status = OrderStatus.PENDING; // Standardwert
     
     // Persönliche Daten
     @NotBlank(message = "Vorname ist erforderlich")
@@ -79,14 +94,14 @@ public class Order {
     
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     @JsonIgnoreProperties({"order"})
+    @BatchSize(size = 50) // Items mehrerer Bestellungen in einer Abfrage nachladen
     @NotEmpty(message = "Bestellung muss mindestens einen Artikel enthalten")
     private List<OrderItem> items = new ArrayList<>();
     
     // Konstruktoren
     public Order() {
         this.orderDate = LocalDateTime.now();
-        this.status = "PENDING";
-        this.orderNumber = "ORD-" + System.currentTimeMillis() + "-" + (int)(Math.random() * 1000);
+        this.status = OrderStatus.PENDING;
         this.country = "Deutschland";
         this.paymentMethod = "INVOICE";
     }
@@ -103,17 +118,17 @@ public class Order {
     public LocalDateTime getOrderDate() { return orderDate; }
     public void setOrderDate(LocalDateTime orderDate) { this.orderDate = orderDate; }
     
-    public Double getSubtotal() { return subtotal; }
-    public void setSubtotal(Double subtotal) { this.subtotal = subtotal; }
+    public BigDecimal getSubtotal() { return subtotal; }
+    public void setSubtotal(BigDecimal subtotal) { this.subtotal = subtotal; }
     
-    public Double getShippingCost() { return shippingCost; }
-    public void setShippingCost(Double shippingCost) { this.shippingCost = shippingCost; }
+    public BigDecimal getShippingCost() { return shippingCost; }
+    public void setShippingCost(BigDecimal shippingCost) { this.shippingCost = shippingCost; }
     
-    public Double getTotalAmount() { return totalAmount; }
-    public void setTotalAmount(Double totalAmount) { this.totalAmount = totalAmount; }
+    public BigDecimal getTotalAmount() { return totalAmount; }
+    public void setTotalAmount(BigDecimal totalAmount) { this.totalAmount = totalAmount; }
     
-    public String getStatus() { return status; }
-    public void setStatus(String status) { this.status = status; }
+    public OrderStatus getStatus() { return status; }
+    public void setStatus(OrderStatus status) { this.status = status; }
     
     public String getFirstName() { return firstName; }
     public void setFirstName(String firstName) { this.firstName = firstName; }
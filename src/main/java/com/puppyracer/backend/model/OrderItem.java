@@ -3,6 +3,7 @@ package com.puppyracer.backend.model;
 import jakarta.persistence.*;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import java.math.BigDecimal;
 
 @Entity
 @Table(name = "order_items")
@@ -10,14 +11,27 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 public class OrderItem {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_item_seq")
+    @SequenceGenerator(name = "order_item_seq", sequenceName = "order_items_seq", allocationSize = 50)
     private Long id;
     
     private Long productId;
     private String productName;
     private String productImage;
-    private Double price;
+
+    // Kategorie zum Bestellzeitpunkt (Umsatzstatistik); null bei Altdaten
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    @JsonIgnore
+    private Category productCategory;
+    // Wird beim Checkout aus dem Produkt übernommen (OrderPricingService)
+    @Column(precision = 10, scale = 2)
+    private BigDecimal price;
     private Integer quantity;
+
+    // Bestand wurde beim Checkout reserviert; nur dann gibt eine Stornierung ihn wieder frei
+    @JsonIgnore
+    private Boolean stockReserved;
     
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "order_id", nullable = false)
@@ -26,7 +40,7 @@ public class OrderItem {
     // Konstruktoren
     public OrderItem() {}
     
-    public OrderItem(Long productId, String productName, String productImage, Double price, Integer quantity) {
+    public OrderItem(Long productId, String productName, String productImage, BigDecimal price, Integer quantity) {
         this.productId = productId;
         this.productName = productName;
         this.productImage = productImage;
@@ -46,18 +60,27 @@ public class OrderItem {
     public String getProductImage() { return productImage; }
     public void setProductImage(String productImage) { this.productImage = productImage; }
     
-    public Double getPrice() { return price; }
-    public void setPrice(Double price) { this.price = price; }
+    public Category getProductCategory() { return productCategory; }
+    public void setProductCategory(Category productCategory) { this.productCategory = productCategory; }
+
+    public BigDecimal getPrice() { return price; }
+    public void setPrice(BigDecimal price) { this.price = price; }
     
     public Integer getQuantity() { return quantity; }
     public void setQuantity(Integer quantity) { this.quantity = quantity; }
     
+    public boolean isStockReserved() { return Boolean.TRUE.equals(stockReserved); }
+    public void setStockReserved(boolean stockReserved) { this.stockReserved = stockReserved; }
+    
     public Order getOrder() { return order; }
     public void setOrder(Order order) { this.order = order; }
     
     // Berechnetes Total
-    public Double getTotalPrice() {
-        return price * quantity;
+    public BigDecimal getTotalPrice() {
+        if (price == null || quantity == null) {
+            return null;
+        }
+        return price.multiply(BigDecimal.valueOf(quantity));
     }
     
     @Override
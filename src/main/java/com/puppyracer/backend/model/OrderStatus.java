@@ -0,0 +1,50 @@
+package com.puppyracer.backend.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Lebenszyklus einer Bestellung:
+ * PENDING -> PAID -> SHIPPED -> DELIVERED, Stornierung bis einschließlich SHIPPED.
+ * DELIVERED und CANCELLED sind Endzustände.
+ */
+public enum OrderStatus {
+
+    PENDING,
+    PAID,
+    SHIPPED,
+    DELIVERED,
+    CANCELLED;
+
+    public Set<OrderStatus> nextStates() {
+        return switch (this) {
+            case PENDING -> EnumSet.of(PAID, CANCELLED);
+            case PAID -> EnumSet.of(SHIPPED, CANCELLED);
+            case SHIPPED -> EnumSet.of(DELIVERED, CANCELLED);
+            case DELIVERED, CANCELLED -> EnumSet.noneOf(OrderStatus.class);
+        };
+    }
+
+    // Gleicher Status ist kein Übergang, aber erlaubt (wiederholtes PUT)
+    public boolean canTransitionTo(OrderStatus target) {
+        return this == target || nextStates().contains(target);
+    }
+
+    // Konvertiert String zu Enum (Groß-/Kleinschreibung egal)
+    @JsonCreator
+    public static OrderStatus fromValue(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+
+        for (OrderStatus status : values()) {
+            if (status.name().equalsIgnoreCase(value.trim())) {
+                return status;
+            }
+        }
+
+        throw new IllegalArgumentException("Unbekannter Status: " + value);
+    }
+}
@@ -2,17 +2,26 @@ package com.puppyracer.backend.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
+import org.hibernate.annotations.DynamicUpdate;
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Objects;
 
 @Entity
+@Table(indexes = {
+    @Index(name = "idx_product_category_id", columnList = "category, id"),
+    @Index(name = "idx_product_rating", columnList = "rating_average, rating_count")
+})
+@DynamicUpdate // Nur geänderte Spalten schreiben, damit Produkt-Updates keine Bewertungszähler überschreiben
 @JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
 public class Product {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_seq")
+    @SequenceGenerator(name = "product_seq", sequenceName = "product_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Titel ist erforderlich")
@@ -28,8 +37,8 @@ public class Product {
     @NotNull(message = "Preis ist erforderlich")
     @DecimalMin(value = "0.01", message = "Preis muss mindestens 0.01 € sein")
     @DecimalMax(value = "9999.99", message = "Preis darf maximal 9999.99 € sein")
-    @Column(nullable = false)
-    private Double price;
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal price;
     
     @NotNull(message = "Kategorie ist erforderlich")
     @Enumerated(EnumType.STRING)
@@ -44,6 +53,16 @@ public class Product {
     @JsonIgnore
     private List<Review> reviews;
 
+    // Lagerbestand; null = wird nicht geführt (unbegrenzt lieferbar).
+    // Beim Checkout nur über ProductRepository.reserveStock/releaseStock ändern.
+    @Min(value = 0, message = "Bestand darf nicht negativ sein")
+    private Integer stock;
+
+    // Wird nur über ProductRepository.updateRating fortgeschrieben
+    @Embedded
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private ProductRating rating = new ProductRating();
+
     // Getter + Setter
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -54,8 +73,8 @@ public class Product {
     public String getDescription() { return description; }
     public void setDescription(String description) { this.description = description; }
 
-    public Double getPrice() { return price; }
-    public void setPrice(Double price) { this.price = price; }
+    public BigDecimal getPrice() { return price; }
+    public void setPrice(BigDecimal price) { this.price = price; }
 
     public Category getCategory() { return category; }
     public void setCategory(Category category) { this.category = category; }
@@ -68,9 +87,14 @@ public class Product {
         this.imageUrl = imageUrl;
     }
 
+    public Integer getStock() { return stock; }
+    public void setStock(Integer stock) { this.stock = stock; }
+
     public List<Review> getReviews() { return reviews; }
     public void setReviews(List<Review> reviews) { this.reviews = reviews; }
 
+    public ProductRating getRating() { return rating; }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
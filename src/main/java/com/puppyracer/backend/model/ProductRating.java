@@ -0,0 +1,59 @@
+package com.puppyracer.backend.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import org.hibernate.annotations.ColumnDefault;
+
+/**
+ * Vorberechnete Bewertungsdaten eines Produkts.
+ * Wird bei jeder neuen/gelöschten Review per atomarem UPDATE fortgeschrieben,
+ * damit Produktlisten Sterne anzeigen können, ohne Reviews zu laden.
+ */
+@Embeddable
+public class ProductRating {
+
+    @Column(name = "rating_count", nullable = false)
+    @ColumnDefault("0")
+    private int count;
+
+    @Column(name = "rating_sum", nullable = false)
+    @ColumnDefault("0")
+    private long sum;
+
+    @Column(name = "rating_average", nullable = false)
+    @ColumnDefault("0")
+    private double average;
+
+    @Column(name = "rating_stars_1", nullable = false)
+    @ColumnDefault("0")
+    private int stars1;
+
+    @Column(name = "rating_stars_2", nullable = false)
+    @ColumnDefault("0")
+    private int stars2;
+
+    @Column(name = "rating_stars_3", nullable = false)
+    @ColumnDefault("0")
+    private int stars3;
+
+    @Column(name = "rating_stars_4", nullable = false)
+    @ColumnDefault("0")
+    private int stars4;
+
+    @Column(name = "rating_stars_5", nullable = false)
+    @ColumnDefault("0")
+    private int stars5;
+
+    public int getCount() { return count; }
+
+    public double getAverage() { return average; }
+
+    @JsonIgnore
+    public long getSum() { return sum; }
+
+    // Anzahl Bewertungen je Sternzahl, Index 0 = 1 Stern
+    public int[] getHistogram() {
+        return new int[] { stars1, stars2, stars3, stars4, stars5 };
+    }
+}
@@ -6,11 +6,16 @@ import jakarta.validation.constraints.*;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = {
+    // Review-Feed pro Produkt, neueste zuerst
+    @Index(name = "idx_review_product_created", columnList = "product_id, created_at")
+})
 @JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
 public class Review {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "review_seq")
+    @SequenceGenerator(name = "review_seq", sequenceName = "review_seq", allocationSize = 50)
     private Long id;
 
     @NotNull(message = "Bewertung ist erforderlich")
@@ -1,11 +1,23 @@
 package com.puppyracer.backend.repository;
 
+import com.puppyracer.backend.dto.OrderSummary;
+import com.puppyracer.backend.dto.StatusCount;
 import com.puppyracer.backend.model.Order;
+import com.puppyracer.backend.model.OrderStatus;
 import com.puppyracer.backend.model.User;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
@@ -16,16 +28,78 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     // Alle Bestellungen, sortiert nach Datum (neueste zuerst)
     List<Order> findAllByOrderByOrderDateDesc();
 
-     List<Order> findByUser(User user);
+    // Fetch-Plan: User und Items in einer Abfrage laden (kein N+1 bei der Serialisierung)
+    @EntityGraph(attributePaths = {"user", "items"})
+    List<Order> findByUser(User user);
     
     // Bestellung anhand der Bestellnummer finden
+    @EntityGraph(attributePaths = {"user", "items"})
     Order findByOrderNumber(String orderNumber);
+
+    // Einzelne Bestellung inkl. User und Items
+    @EntityGraph(attributePaths = {"user", "items"})
+    Optional<Order> findWithDetailsById(Long id);
+
+    @Override
+    @EntityGraph(attributePaths = {"user", "items"})
+    List<Order> findAll();
     
     // Zählen wie viele Bestellungen ein User hat
     Long countByUser(User user);
 
+    @EntityGraph(attributePaths = {"user", "items"})
     List<Order> findByUserIdOrderByOrderDateDesc(Long userId);
 
+    // Bestellhistorie als Keyset-Seiten über idx_orders_user_date, Mengen per Unterabfrage (eine SQL-Abfrage)
+    @Query("""
+            SELECT new com.puppyracer.backend.dto.OrderSummary(o.id, o.orderNumber, o.orderDate, o.totalAmount, o.status,
+                coalesce((SELECT sum(i.quantity) FROM OrderItem i WHERE i.order = o), 0))
+            FROM Order o
+            WHERE o.user.id = :userId
+            ORDER BY o.orderDate DESC, o.id DESC
+            """)
+    List<OrderSummary> findSummariesByUserId(@Param("userId") Long userId, Limit limit);
+
+    // Keyset-Variante: nur Bestellungen, die älter als der Cursor (orderDate, id) sind
+    @Query("""
+            SELECT new com.puppyracer.backend.dto.OrderSummary(o.id, o.orderNumber, o.orderDate, o.totalAmount, o.status,
+                coalesce((SELECT sum(i.quantity) FROM OrderItem i WHERE i.order = o), 0))
+            FROM Order o
+            WHERE o.user.id = :userId
+              AND (o.orderDate < :orderDate OR (o.orderDate = :orderDate AND o.id < :id))
+            ORDER BY o.orderDate DESC, o.id DESC
+            """)
+    List<OrderSummary> findSummariesByUserIdBefore(@Param("userId") Long userId,
+                                                   @Param("orderDate") LocalDateTime orderDate,
+                                                   @Param("id") Long id,
+                                                   Limit limit);
+
     // Optional: Nach Status filtern
-    List<Order> findByStatusOrderByOrderDateDesc(String status);        
+    List<Order> findByStatusOrderByOrderDateDesc(OrderStatus status);        
+
+    // Seitenweise Varianten für die Admin-Übersicht, ohne COUNT-Abfrage (Gesamtzahl aus OrderStatusCounters).
+    // User per Join, Items per Batch-Fetch (Collection-Join würde die Pagination in den Speicher verlagern)
+    @EntityGraph(attributePaths = {"user"})
+    Slice<Order> findAllByOrderByOrderDateDesc(Pageable pageable);
+
+    // Nutzt idx_orders_status_date
+    @EntityGraph(attributePaths = {"user"})
+    Slice<Order> findByStatusOrderByOrderDateDesc(OrderStatus status, Pageable pageable);
+
+    // Compare-and-set: von parallelen Statuswechseln gewinnt genau einer, die anderen bekommen 0
+    @Modifying
+    @Query("UPDATE Order o SET o.status = :newStatus WHERE o.id = :id AND o.status = :oldStatus")
+    int updateStatus(@Param("id") Long id,
+                     @Param("oldStatus") OrderStatus oldStatus,
+                     @Param("newStatus") OrderStatus newStatus);
+
+    @Query("select new com.puppyracer.backend.dto.StatusCount(o.status, count(o)) from Order o group by o.status")
+    List<StatusCount> countByStatus();
+
+    // Keyset-Batches für den Neuaufbau der Umsatzstatistik (Items per Batch-Fetch)
+    List<Order> findByStatusNotAndIdGreaterThanOrderByIdAsc(OrderStatus status, Long id, Limit limit);
+
+    // Keyset-Batches für den Export (konstanter Speicher, gleiche Kosten pro Batch)
+    @EntityGraph(attributePaths = {"user"})
+    List<Order> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
 }
\ No newline at end of file
@@ -1,11 +1,19 @@
 package com.puppyracer.backend.repository;
 
-import com.puppyracer.backend.model.Product;
+import com.puppyracer.backend.dto.CategoryCount;
 import com.puppyracer.backend.model.Category;
+import com.puppyracer.backend.model.Product;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
@@ -19,6 +27,86 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     // Suche nach Titel UND Kategorie (Enum)
     List<Product> findByTitleContainingIgnoreCaseAndCategory(String title, Category category);
     
+    // Seitenweise Varianten (Offset-Pagination mit Gesamtanzahl)
+    Page<Product> findByTitleContainingIgnoreCase(String title, Pageable pageable);
+    
+    Page<Product> findByCategory(Category category, Pageable pageable);
+    
+    Page<Product> findByTitleContainingIgnoreCaseAndCategory(String title, Category category, Pageable pageable);
+    
+    // Keyset-Pagination: nächste Einträge nach der letzten gesehenen ID
+    // (kostet auf jeder Seite gleich viel, nutzt Primärschlüssel bzw. idx_product_category_id)
+    List<Product> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+    
+    List<Product> findByCategoryAndIdGreaterThanOrderByIdAsc(Category category, Long id, Limit limit);
+    
+    // Bestbewertete Produkte (nutzt idx_product_rating, keine Review-Abfrage)
+    List<Product> findByRatingCountGreaterThanOrderByRatingAverageDescRatingCountDesc(int minCount, Limit limit);
+    
+    List<Product> findByCategoryAndRatingCountGreaterThanOrderByRatingAverageDescRatingCountDesc(
+            Category category, int minCount, Limit limit);
+    
+    // Bewertungsaggregate atomar fortschreiben (delta = +1 neue Review, -1 gelöschte Review).
+    // Der Durchschnitt steht vorne, damit er auch bei MariaDB (Zuweisung von links nach rechts) die alten Werte sieht.
+    // flushAutomatically: gespeicherte/gelöschte Review vorher schreiben, sonst verwirft clear sie
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            UPDATE Product p SET
+                p.rating.average = CASE WHEN p.rating.count + :delta > 0
+                    THEN (p.rating.sum + :starsDelta) * 1.0 / (p.rating.count + :delta)
+                    ELSE 0 END,
+                p.rating.sum = p.rating.sum + :starsDelta,
+                p.rating.count = p.rating.count + :delta,
+                p.rating.stars1 = p.rating.stars1 + CASE WHEN :stars = 1 THEN :delta ELSE 0 END,
+                p.rating.stars2 = p.rating.stars2 + CASE WHEN :stars = 2 THEN :delta ELSE 0 END,
+                p.rating.stars3 = p.rating.stars3 + CASE WHEN :stars = 3 THEN :delta ELSE 0 END,
+                p.rating.stars4 = p.rating.stars4 + CASE WHEN :stars = 4 THEN :delta ELSE 0 END,
+                p.rating.stars5 = p.rating.stars5 + CASE WHEN :stars = 5 THEN :delta ELSE 0 END
+            WHERE p.id = :productId
+            """)
+    int updateRating(@Param("productId") Long productId,
+                     @Param("stars") int stars,
+                     @Param("delta") int delta,
+                     @Param("starsDelta") int starsDelta);
+    
+    // Compare-and-decrement: sperrt nur die Produktzeile, schlägt fehl (0) bei zu wenig Bestand.
+    // Ohne geführten Bestand (NULL) immer erfolgreich, stock bleibt NULL.
+    // Die Preisberechnung hat die Produkte bereits geladen: Kontext leeren, damit
+    // Listener nach dem Checkout (Snapshot) den neuen Bestand lesen.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            UPDATE Product p SET p.stock = p.stock - :quantity
+            WHERE p.id = :productId AND (p.stock IS NULL OR p.stock >= :quantity)
+            """)
+    int reserveStock(@Param("productId") Long productId, @Param("quantity") int quantity);
+    
+    // Gibt reservierten Bestand zurück (nur für Produkte mit geführtem Bestand)
+    @Modifying
+    @Query("UPDATE Product p SET p.stock = p.stock + :quantity WHERE p.id = :productId AND p.stock IS NOT NULL")
+    int releaseStock(@Param("productId") Long productId, @Param("quantity") int quantity);
+    
+    // Einmaliger Neuaufbau aller Aggregate aus der Review-Tabelle (z.B. für Bestandsdaten)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            UPDATE Product p SET
+                p.rating.count = (SELECT count(r) FROM Review r WHERE r.product = p),
+                p.rating.sum = coalesce((SELECT sum(r.stars) FROM Review r WHERE r.product = p), 0),
+                p.rating.average = coalesce((SELECT avg(r.stars) FROM Review r WHERE r.product = p), 0),
+                p.rating.stars1 = (SELECT count(r) FROM Review r WHERE r.product = p AND r.stars = 1),
+                p.rating.stars2 = (SELECT count(r) FROM Review r WHERE r.product = p AND r.stars = 2),
+                p.rating.stars3 = (SELECT count(r) FROM Review r WHERE r.product = p AND r.stars = 3),
+                p.rating.stars4 = (SELECT count(r) FROM Review r WHERE r.product = p AND r.stars = 4),
+                p.rating.stars5 = (SELECT count(r) FROM Review r WHERE r.product = p AND r.stars = 5)
+            """)
+    int rebuildRatings();
+    
+    @Query("SELECT new com.puppyracer.backend.dto.CategoryCount(p.category, count(p)) FROM Product p GROUP BY p.category")
+    List<CategoryCount> countByCategory();
+    
+    // Nur die Kategorie (Umsatzstatistik), ohne das Produkt zu laden
+    @Query("SELECT p.category FROM Product p WHERE p.id = :id")
+    Optional<Category> findCategoryById(@Param("id") Long id);
+    
     // Optional: Für Kompatibilität, falls noch irgendwo String verwendet wird
     default List<Product> findByCategoryIgnoreCase(String category) {
         try {
@@ -1,12 +1,22 @@
 package com.puppyracer.backend.repository;
 
+import com.puppyracer.backend.dto.ReviewView;
 import com.puppyracer.backend.model.Review;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ReviewRepository extends JpaRepository<Review, Long> {
     
-    // Bestehende Methode
+    // Bestehende Methode (User mitladen, damit userName kein N+1 auslöst)
+    @EntityGraph(attributePaths = {"user"})
     List<Review> findByProductId(Long productId);
     
     // Neue Methoden für bessere Abfragen
@@ -14,6 +24,38 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
     
     List<Review> findByProductIdOrderByCreatedAtDesc(Long productId);
     
+    // Neueste zuerst als DTO-Projektion (nutzt idx_review_product_created)
+    @Query(value = """
+            SELECT new com.puppyracer.backend.dto.ReviewView(r.id, r.stars, r.text, r.createdAt, u.name)
+            FROM Review r JOIN r.user u
+            WHERE r.product.id = :productId
+            ORDER BY r.createdAt DESC, r.id DESC
+            """,
+            countQuery = "SELECT count(r) FROM Review r WHERE r.product.id = :productId")
+    Page<ReviewView> findViewsByProductIdOrderByCreatedAtDesc(@Param("productId") Long productId, Pageable pageable);
+    
+    // Erste Keyset-Seite (ohne Count-Abfrage)
+    @Query("""
+            SELECT new com.puppyracer.backend.dto.ReviewView(r.id, r.stars, r.text, r.createdAt, u.name)
+            FROM Review r JOIN r.user u
+            WHERE r.product.id = :productId
+            ORDER BY r.createdAt DESC, r.id DESC
+            """)
+    List<ReviewView> findViewsByProductId(@Param("productId") Long productId, Limit limit);
+    
+    // Keyset-Variante: nur Reviews, die älter als der Cursor (createdAt, id) sind
+    @Query("""
+            SELECT new com.puppyracer.backend.dto.ReviewView(r.id, r.stars, r.text, r.createdAt, u.name)
+            FROM Review r JOIN r.user u
+            WHERE r.product.id = :productId
+              AND (r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :id))
+            ORDER BY r.createdAt DESC, r.id DESC
+            """)
+    List<ReviewView> findViewsByProductIdBefore(@Param("productId") Long productId,
+                                                @Param("createdAt") LocalDateTime createdAt,
+                                                @Param("id") Long id,
+                                                Limit limit);
+    
     // Prüfen ob User bereits Produkt bewertet hat
     boolean existsByProductIdAndUserId(Long productId, Long userId);
-}
\ No newline at end of file
+}
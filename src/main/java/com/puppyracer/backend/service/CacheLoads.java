@@ -0,0 +1,45 @@
+package com.puppyracer.backend.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Laden bei Cache-Miss, ohne dabei einen Monitor zu halten.
+ *
+ * Cache.get(key, loader) führt den Loader innerhalb von ConcurrentHashMap.compute
+ * aus, also in einem synchronized-Block. Ein JDBC-Aufruf dort blockiert unter
+ * virtuellen Threads den Carrier-Thread (Pinning). Hier wird unter dem Lock nur
+ * ein Future eingetragen; geladen wird danach im aufrufenden Thread. Gleichzeitige
+ * Anfragen für denselben Key warten auf dasselbe Future (nur eine DB-Abfrage).
+ */
+final class CacheLoads {
+
+    private CacheLoads() {
+    }
+
+    /**
+     * @return geladener Wert oder null; null und Fehler werden nicht gecacht
+     */
+    static <K, V> V getOrLoad(AsyncCache<K, V> cache, K key, Function<K, V> loader) {
+        CompletableFuture<V> own = new CompletableFuture<>();
+        CompletableFuture<V> future = cache.get(key, (k, executor) -> own);
+        if (future == own) {
+            try {
+                own.complete(loader.apply(key));
+            } catch (RuntimeException e) {
+                own.completeExceptionally(e);
+            }
+        }
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.puppyracer.backend.service;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Versionszähler für den öffentlichen Produktkatalog; daraus werden die ETags
+ * der Katalog-Endpunkte gebildet. Änderungen am Katalog (Produkte, Bewertungen,
+ * Bestand, Import) werden über {@link #publish(Object)} veröffentlicht.
+ *
+ * Die Version wird erst erhöht, nachdem alle Listener (Caches, Suchindex) gelaufen
+ * sind. Sonst könnte ein Request die neue Version lesen, aber noch den alten Stand
+ * aus dem Cache bekommen - und ihn unter dem neuen ETag ausliefern.
+ */
+@Service
+public class CatalogVersion {
+
+    private final ApplicationEventPublisher eventPublisher;
+    // Startwert = Startzeit, damit ETags nach einem Neustart nicht wiederverwendet werden
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
+
+    public CatalogVersion(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    public void publish(Object event) {
+        eventPublisher.publishEvent(event);
+        version.incrementAndGet();
+    }
+
+    public long current() {
+        return version.get();
+    }
+
+    // Schwacher ETag: Tomcat komprimiert keine Antworten mit starkem ETag,
+    // und komprimiert/unkomprimiert ist derselbe Inhalt
+    public String etag() {
+        return "W/\"catalog-" + version.get() + "\"";
+    }
+}
@@ -0,0 +1,107 @@
+package com.puppyracer.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.puppyracer.backend.dto.CategoryCount;
+import com.puppyracer.backend.model.Category;
+import com.puppyracer.backend.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Anzahl Produkte pro Kategorie. Beim Start per GROUP BY geladen, danach über
+ * ProductChangedEvent fortgeschrieben; nach einem Import wird neu gezählt.
+ * Die JSON-Antwort wird nur bei Änderungen neu serialisiert.
+ */
+@Service
+public class CategoryCounts {
+
+    private static final Logger log = LoggerFactory.getLogger(CategoryCounts.class);
+
+    private final ProductRepository productRepository;
+    private final ObjectMapper objectMapper;
+    private final Map<Category, AtomicLong> counts = new EnumMap<>(Category.class);
+
+    // Schreiber serialisieren nacheinander, damit kein älterer Stand den neueren überschreibt
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile byte[] json;
+
+    public CategoryCounts(ProductRepository productRepository, ObjectMapper objectMapper) {
+        this.productRepository = productRepository;
+        this.objectMapper = objectMapper;
+        for (Category category : Category.values()) {
+            counts.put(category, new AtomicLong());
+        }
+        this.json = serialize();
+    }
+
+    // Zählen und Setzen unter der Sperre: ein Event dazwischen würde sonst vom älteren Stand überschrieben.
+    // Events warten so lange wie die GROUP BY-Abfrage.
+    @EventListener({ApplicationReadyEvent.class, ProductsImportedEvent.class})
+    public void rebuild() {
+        Map<Category, Long> fromDb = new EnumMap<>(Category.class);
+        lock.lock();
+        try {
+            for (CategoryCount row : productRepository.countByCategory()) {
+                // Produkte ohne Kategorie werden nicht gezählt
+                if (row.category() != null) {
+                    fromDb.put(row.category(), row.count());
+                }
+            }
+            counts.forEach((category, count) -> count.set(fromDb.getOrDefault(category, 0L)));
+            json = serialize();
+        } finally {
+            lock.unlock();
+        }
+        log.info("Category counts loaded: {}", fromDb);
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        Category previous = event.previousCategory();
+        Category current = event.isDeletion() ? null : event.product().getCategory();
+        if (previous == current) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (previous != null) {
+                counts.get(previous).decrementAndGet();
+            }
+            if (current != null) {
+                counts.get(current).incrementAndGet();
+            }
+            json = serialize();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long count(Category category) {
+        return counts.get(category).get();
+    }
+
+    /** {"leinen": 12, ...} in der Reihenfolge des Enums */
+    public byte[] json() {
+        return json;
+    }
+
+    private byte[] serialize() {
+        Map<String, Long> byApiValue = new LinkedHashMap<>();
+        counts.forEach((category, count) -> byApiValue.put(category.getApiValue(), count.get()));
+        try {
+            return objectMapper.writeValueAsBytes(byApiValue);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
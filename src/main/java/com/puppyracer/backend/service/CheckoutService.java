@@ -0,0 +1,135 @@
+package com.puppyracer.backend.service;
+
+import com.puppyracer.backend.model.Order;
+import com.puppyracer.backend.model.OrderItem;
+import com.puppyracer.backend.model.OrderStatus;
+import com.puppyracer.backend.model.Product;
+import com.puppyracer.backend.repository.OrderRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Legt Bestellungen an: Preise berechnen, Bestand reservieren und speichern.
+ * Reservierung und INSERT laufen in einer kurzen Transaktion, damit die
+ * Zeilensperren auf heißen Produkten nur so lange wie nötig gehalten werden.
+ */
+@Service
+public class CheckoutService {
+
+    private final OrderRepository orderRepository;
+    private final OrderPricingService orderPricingService;
+    private final InventoryService inventoryService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CatalogVersion catalogVersion;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+
+    public CheckoutService(OrderRepository orderRepository,
+                           OrderPricingService orderPricingService,
+                           InventoryService inventoryService,
+                           ApplicationEventPublisher eventPublisher,
+                           CatalogVersion catalogVersion,
+                           PlatformTransactionManager transactionManager,
+                           EntityManager entityManager) {
+        this.orderRepository = orderRepository;
+        this.orderPricingService = orderPricingService;
+        this.inventoryService = inventoryService;
+        this.eventPublisher = eventPublisher;
+        this.catalogVersion = catalogVersion;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * @throws IllegalArgumentException bei ungültigen Positionen
+     * @throws PriceMismatchException   wenn Client-Preise abweichen
+     * @throws OutOfStockException      wenn ein Produkt nicht genug Bestand hat
+     */
+    public Order placeOrder(Order order) {
+        // Preisberechnung liest nur, daher außerhalb der Schreibtransaktion
+        Map<Long, Product> products = orderPricingService.applyPricing(order);
+        List<Long> tracked = products.values().stream()
+                .filter(product -> product.getStock() != null)
+                .map(Product::getId)
+                .toList();
+        for (OrderItem item : order.getItems()) {
+            item.setStockReserved(tracked.contains(item.getProductId()));
+        }
+
+        Order saved = transactionTemplate.execute(status -> {
+            inventoryService.reserve(order.getItems(), tracked);
+            return orderRepository.save(order);
+        });
+        eventPublisher.publishEvent(new OrderStatusChangedEvent(saved, null, saved.getStatus()));
+        if (!tracked.isEmpty()) {
+            catalogVersion.publish(new StockChangedEvent(tracked));
+        }
+        return saved;
+    }
+
+    /**
+     * Setzt den Status gemäß dem Lebenszyklus (siehe OrderStatus).
+     * Beim Stornieren wird der reservierte Bestand freigegeben.
+     *
+     * Der Wechsel ist ein Compare-and-set auf den gelesenen Status: von parallelen
+     * Anfragen auf dieselbe Bestellung gewinnt genau eine, nur sie gibt Bestand frei
+     * und meldet den Wechsel. Die anderen prüfen in einer neuen Transaktion gegen den
+     * aktuellen Status (z.B. zweites Stornieren: schon CANCELLED, also nichts zu tun).
+     * Da der Lebenszyklus keine Zyklen hat, endet das nach wenigen Versuchen.
+     *
+     * @throws InvalidStatusTransitionException wenn der Wechsel nicht erlaubt ist
+     */
+    public Optional<Order> changeStatus(Long orderId, OrderStatus newStatus) {
+        Optional<Transition> result;
+        do {
+            result = transactionTemplate.execute(status -> tryChangeStatus(orderId, newStatus));
+        } while (result.isPresent() && result.get().order() == null);
+
+        result.filter(transition -> transition.previous() != newStatus).ifPresent(transition -> {
+            Order order = transition.order();
+            eventPublisher.publishEvent(new OrderStatusChangedEvent(order, transition.previous(), newStatus));
+            List<OrderItem> released = InventoryService.reserved(order.getItems());
+            if (newStatus == OrderStatus.CANCELLED && !released.isEmpty()) {
+                catalogVersion.publish(new StockChangedEvent(productIds(released)));
+            }
+        });
+        return result.map(Transition::order);
+    }
+
+    // Ein Versuch; Transition ohne Order heißt: Status wurde parallel geändert, neu versuchen
+    private Optional<Transition> tryChangeStatus(Long orderId, OrderStatus newStatus) {
+        return orderRepository.findWithDetailsById(orderId).map(order -> {
+            OrderStatus previous = order.getStatus();
+            if (!previous.canTransitionTo(newStatus)) {
+                throw new InvalidStatusTransitionException(previous, newStatus);
+            }
+            if (previous == newStatus) {
+                return new Transition(order, previous);
+            }
+            if (orderRepository.updateStatus(orderId, previous, newStatus) == 0) {
+                // Veralteten Stand verwerfen (bei Open-in-View lebt der Kontext über die Transaktion hinaus)
+                entityManager.detach(order);
+                return new Transition(null, previous);
+            }
+            if (newStatus == OrderStatus.CANCELLED) {
+                inventoryService.release(order.getItems());
+            }
+            order.setStatus(newStatus);
+            return new Transition(order, previous);
+        });
+    }
+
+    private record Transition(Order order, OrderStatus previous) {
+    }
+
+    private static List<Long> productIds(List<OrderItem> items) {
+        return items.stream().map(OrderItem::getProductId).distinct().toList();
+    }
+}
@@ -0,0 +1,108 @@
+package com.puppyracer.backend.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimaler CSV-Leser nach RFC 4180 (Komma als Trenner, Felder optional in
+ * Anführungszeichen, "" als Escape, Zeilenumbrüche in Anführungszeichen erlaubt).
+ * Liest zeilenweise aus einem Reader, hält also nie die ganze Datei im Speicher.
+ */
+public final class CsvReader {
+
+    private static final char SEPARATOR = ',';
+    private static final char QUOTE = '"';
+
+    private final Reader reader;
+    private int pending = -2; // -2 = kein Zeichen vorgemerkt
+
+    public CsvReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    // Nächster Datensatz oder null am Dateiende; Leerzeilen werden übersprungen
+    public List<String> next() throws IOException {
+        while (true) {
+            int c = read();
+            if (c == -1) {
+                return null;
+            }
+            if (c == '\r' || c == '\n') {
+                continue;
+            }
+            unread(c);
+            return readRecord();
+        }
+    }
+
+    private List<String> readRecord() throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            int c = read();
+            if (quoted) {
+                if (c == -1) {
+                    throw new IOException("CSV: Anführungszeichen nicht geschlossen");
+                }
+                if (c == QUOTE) {
+                    int next = read();
+                    if (next == QUOTE) {
+                        field.append(QUOTE);
+                    } else {
+                        quoted = false;
+                        unread(next);
+                    }
+                } else {
+                    field.append((char) c);
+                }
+                continue;
+            }
+            if (c == -1 || c == '\n' || c == '\r') {
+                if (c == '\r') {
+                    int next = read();
+                    if (next != '\n') {
+                        unread(next);
+                    }
+                }
+                fields.add(field.toString());
+                return fields;
+            }
+            if (c == SEPARATOR) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == QUOTE && field.isEmpty()) {
+                quoted = true;
+            } else {
+                field.append((char) c);
+            }
+        }
+    }
+
+    // Setzt ein Feld in Anführungszeichen, falls es Trenner, Quotes oder Umbrüche enthält
+    public static String quote(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(SEPARATOR) < 0 && value.indexOf(QUOTE) < 0
+                && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return QUOTE + value.replace("\"", "\"\"") + QUOTE;
+    }
+
+    private int read() throws IOException {
+        if (pending != -2) {
+            int c = pending;
+            pending = -2;
+            return c;
+        }
+        return reader.read();
+    }
+
+    private void unread(int c) {
+        pending = c;
+    }
+}
@@ -0,0 +1,89 @@
+package com.puppyracer.backend.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Einfache Textanalyse für deutsche Produkttexte (Suche und Autocomplete).
+ * Normalisierung wie bei Lucenes GermanNormalizationFilter:
+ * ä/ö/ü -> a/o/u, ae/oe/ue -> a/o/u, ß -> ss, übrige Akzente entfernt.
+ * Dazu ein leichter Stemmer, der gängige Flexionsendungen abschneidet.
+ */
+public final class GermanTextAnalyzer {
+
+    // Mindestlänge eines Wortteils bei der Zerlegung von Komposita
+    public static final int MIN_COMPOUND_PART = 4;
+
+    private static final int MIN_STEM = 4;
+    private static final String[] SUFFIXES = {"ern", "em", "en", "er", "es", "e", "n", "s"};
+
+    private static final Set<String> STOPWORDS = Set.of(
+            "und", "oder", "mit", "fur", "in", "im", "aus", "von", "vom", "der", "die", "das",
+            "den", "dem", "des", "ein", "eine", "einer", "einem", "einen", "zu", "zum", "zur",
+            "am", "an", "auf", "bei", "ist", "sehr");
+
+    private GermanTextAnalyzer() {
+    }
+
+    // Kleinschreibung + Umlaut-/Akzentfaltung, alles außer Buchstaben/Ziffern wird Leerzeichen
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String lower = text.toLowerCase(Locale.GERMAN)
+                .replace("ß", "ss")
+                .replace("ä", "a")
+                .replace("ö", "o")
+                .replace("ü", "u");
+        lower = Normalizer.normalize(lower, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+
+        StringBuilder sb = new StringBuilder(lower.length());
+        char previous = ' ';
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            if (!Character.isLetterOrDigit(c)) {
+                c = ' ';
+            }
+            // Umschreibungen ae/oe/ue wie Umlaute behandeln (nicht bei "que")
+            if (c == 'e' && (previous == 'a' || previous == 'o' || previous == 'u')
+                    && !(previous == 'u' && sb.length() > 1 && sb.charAt(sb.length() - 2) == 'q')) {
+                continue;
+            }
+            sb.append(c);
+            previous = c;
+        }
+        return sb.toString().trim();
+    }
+
+    // Normalisierte Wörter ohne Stoppwörter (ungestemmt)
+    public static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        for (String word : normalize(text).split("\\s+")) {
+            if (word.length() >= 2 && !STOPWORDS.contains(word)) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    // Normalisierte und gestemmte Terme
+    public static List<String> terms(String text) {
+        List<String> terms = new ArrayList<>();
+        for (String word : words(text)) {
+            terms.add(stem(word));
+        }
+        return terms;
+    }
+
+    public static String stem(String word) {
+        for (String suffix : SUFFIXES) {
+            if (word.endsWith(suffix) && word.length() - suffix.length() >= MIN_STEM) {
+                return word.substring(0, word.length() - suffix.length());
+            }
+        }
+        return word;
+    }
+}
@@ -0,0 +1,118 @@
+package com.puppyracer.backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Speichert Antworten zu Idempotency-Keys, damit wiederholte Requests (z.B. nach
+ * einem Timeout im Client) nicht doppelt ausgeführt werden.
+ *
+ * Pro Key gewinnt der erste Request und führt die Aktion aus; gleichzeitige
+ * Duplikate warten auf dessen Ergebnis. Gespeichert werden nur erfolgreiche
+ * Antworten (2xx) - nach einem Fehler darf der Client mit demselben Key neu versuchen.
+ * Derselbe Key mit anderem Request-Inhalt wird mit 422 abgelehnt.
+ */
+@Service
+public class IdempotencyStore {
+
+    public static final String CACHE_NAME = "idempotencyKeys";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    public static final int MAX_KEY_LENGTH = 255;
+
+    private final Cache<String, Entry> cache;
+    private final Duration waitTimeout;
+
+    public IdempotencyStore(MeterRegistry meterRegistry,
+                            @Value("${app.idempotency.max-keys:10000}") long maxKeys,
+                            @Value("${app.idempotency.ttl:24h}") Duration ttl,
+                            @Value("${app.idempotency.wait-timeout:30s}") Duration waitTimeout) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.waitTimeout = waitTimeout;
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    private record Entry(String fingerprint, CompletableFuture<ResponseEntity<?>> response) {
+    }
+
+    /**
+     * Führt die Aktion höchstens einmal pro Key aus.
+     *
+     * @param key         Key inkl. Scope (z.B. User), damit sich Clients nicht gegenseitig treffen
+     * @param fingerprint Hash des Request-Inhalts, siehe {@link #fingerprint(byte[])}
+     */
+    public ResponseEntity<?> execute(String key, String fingerprint, Supplier<ResponseEntity<?>> action) {
+        Entry own = new Entry(fingerprint, new CompletableFuture<>());
+        Entry existing = cache.asMap().putIfAbsent(key, own);
+        if (existing != null) {
+            return replay(existing, fingerprint);
+        }
+
+        ResponseEntity<?> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            cache.asMap().remove(key, own);
+            own.response().completeExceptionally(e);
+            throw e;
+        }
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            cache.asMap().remove(key, own);
+        }
+        // Wartende Duplikate bekommen auch eine Fehlerantwort, statt selbst auszuführen
+        own.response().complete(response);
+        return response;
+    }
+
+    private ResponseEntity<?> replay(Entry existing, String fingerprint) {
+        if (!existing.fingerprint().equals(fingerprint)) {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                    .body(Map.of("error", "Idempotency-Key wurde bereits für eine andere Anfrage verwendet"));
+        }
+        try {
+            ResponseEntity<?> original = existing.response().get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            return ResponseEntity.status(original.getStatusCode())
+                    .headers(original.getHeaders())
+                    .header(REPLAYED_HEADER, "true")
+                    .body(original.getBody());
+        } catch (TimeoutException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", "Anfrage mit diesem Idempotency-Key wird noch verarbeitet"));
+        } catch (ExecutionException e) {
+            // Erster Versuch ist abgebrochen; Key ist wieder frei
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", "Vorherige Anfrage mit diesem Idempotency-Key ist fehlgeschlagen, bitte erneut senden"));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    public static String fingerprint(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.puppyracer.backend.service;
+
+import com.puppyracer.backend.model.OrderStatus;
+
+/**
+ * Der gewünschte Statuswechsel ist im Lebenszyklus der Bestellung nicht vorgesehen.
+ */
+public class InvalidStatusTransitionException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final OrderStatus from;
+    private final OrderStatus to;
+
+    public InvalidStatusTransitionException(OrderStatus from, OrderStatus to) {
+        super("Statuswechsel von " + from + " nach " + to + " ist nicht erlaubt");
+        this.from = from;
+        this.to = to;
+    }
+
+    public OrderStatus getFrom() { return from; }
+
+    public OrderStatus getTo() { return to; }
+}
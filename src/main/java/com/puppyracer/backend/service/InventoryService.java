@@ -0,0 +1,68 @@
+package com.puppyracer.backend.service;
+
+import com.puppyracer.backend.model.OrderItem;
+import com.puppyracer.backend.repository.ProductRepository;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Reserviert und gibt Lagerbestand frei. Jede Änderung ist ein atomares
+ * "UPDATE ... WHERE stock >= menge" auf genau eine Produktzeile - kein
+ * Tabellenlock, kein Read-Modify-Write. Die Zeilen werden immer in
+ * aufsteigender Produkt-ID gesperrt, damit sich parallele Bestellungen mit
+ * überlappenden Produkten nicht gegenseitig blockieren (Deadlock).
+ *
+ * Muss innerhalb einer Transaktion aufgerufen werden; schlägt eine
+ * Reservierung fehl, rollt die Transaktion alle vorherigen zurück.
+ */
+@Service
+public class InventoryService {
+
+    private final ProductRepository productRepository;
+
+    public InventoryService(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    /**
+     * @param productIds nur diese Produkte reservieren; Produkte ohne geführten Bestand
+     *                   auszulassen spart beim Checkout die UPDATEs
+     * @throws OutOfStockException wenn für ein Produkt nicht genug Bestand vorhanden ist
+     */
+    public void reserve(List<OrderItem> items, Collection<Long> productIds) {
+        for (Map.Entry<Long, Integer> entry : quantities(items).entrySet()) {
+            if (productIds.contains(entry.getKey())
+                    && productRepository.reserveStock(entry.getKey(), entry.getValue()) == 0) {
+                throw new OutOfStockException(entry.getKey());
+            }
+        }
+    }
+
+    /**
+     * Gibt nur Positionen frei, deren Bestand beim Checkout reserviert wurde
+     * (Produkte ohne geführten Bestand bleiben unverändert, auch wenn sie inzwischen einen haben).
+     */
+    public void release(List<OrderItem> items) {
+        for (Map.Entry<Long, Integer> entry : quantities(reserved(items)).entrySet()) {
+            productRepository.releaseStock(entry.getKey(), entry.getValue());
+        }
+    }
+
+    public static List<OrderItem> reserved(List<OrderItem> items) {
+        return items.stream().filter(OrderItem::isStockReserved).toList();
+    }
+
+    // Menge pro Produkt, nach Produkt-ID sortiert (feste Sperrreihenfolge)
+    private static SortedMap<Long, Integer> quantities(List<OrderItem> items) {
+        SortedMap<Long, Integer> quantities = new TreeMap<>();
+        for (OrderItem item : items) {
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+}
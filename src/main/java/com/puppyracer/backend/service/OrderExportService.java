@@ -0,0 +1,81 @@
+package com.puppyracer.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.puppyracer.backend.model.Order;
+import com.puppyracer.backend.repository.OrderRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Streamt alle Bestellungen als NDJSON (eine Bestellung pro Zeile).
+ * Jeder Batch läuft in einer eigenen Read-only-Transaktion, danach wird
+ * der Persistence Context geleert - der Speicherbedarf bleibt konstant.
+ * Das Leeren ist nötig, weil Open-in-View den EntityManager des Requests
+ * auch an den Streaming-Thread bindet und alle Batches ihn mitbenutzen.
+ */
+@Service
+public class OrderExportService {
+
+    private static final byte NEWLINE = '\n';
+
+    private final OrderRepository orderRepository;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int batchSize;
+
+    public OrderExportService(OrderRepository orderRepository,
+                              ObjectMapper objectMapper,
+                              EntityManager entityManager,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${app.export.batch-size:500}") int batchSize) {
+        this.orderRepository = orderRepository;
+        this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.batchSize = batchSize;
+    }
+
+    public long writeNdjson(OutputStream out) throws IOException {
+        long written = 0;
+        long lastId = 0;
+
+        while (true) {
+            final long after = lastId;
+            // Serialisierung innerhalb der Transaktion, damit user/items nachgeladen werden können
+            List<Long> ids = readOnlyTransaction.execute(status -> {
+                List<Order> batch = orderRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(batchSize));
+                for (Order order : batch) {
+                    try {
+                        out.write(objectMapper.writeValueAsBytes(order));
+                        out.write(NEWLINE);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                List<Long> batchIds = batch.stream().map(Order::getId).toList();
+                // Geschriebene Bestellungen, Items und User nicht bis zum Ende des Requests festhalten
+                entityManager.clear();
+                return batchIds;
+            });
+
+            if (ids == null || ids.isEmpty()) {
+                break;
+            }
+            out.flush();
+            written += ids.size();
+            lastId = ids.get(ids.size() - 1);
+        }
+        return written;
+    }
+}
@@ -0,0 +1,76 @@
+package com.puppyracer.backend.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Erzeugt eindeutige, zeitlich aufsteigende Bestellnummern (Snowflake-Schema):
+ * 41 Bit Millisekunden seit EPOCH | 10 Bit Knoten-ID | 12 Bit Sequenz.
+ *
+ * - Lock-frei: der Zustand (Zeit + Sequenz) liegt in einem AtomicLong und wird per CAS fortgeschrieben.
+ * - Monoton: läuft die Sequenz innerhalb einer Millisekunde über oder geht die Uhr zurück,
+ *   wird einfach in die nächste "logische" Millisekunde weitergezählt statt zu warten.
+ * - Eindeutig über Knoten hinweg, solange jede Instanz eine eigene app.orders.node-id hat.
+ *
+ * Die Nummer wird als "ORD-" + 19-stellige Dezimalzahl ausgegeben, damit die
+ * Sortierung als String der Erzeugungsreihenfolge entspricht.
+ */
+@Service
+public class OrderNumberGenerator {
+
+    public static final String PREFIX = "ORD-";
+
+    // 2025-01-01T00:00:00Z
+    private static final long EPOCH = 1735689600000L;
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final int DIGITS = 19;
+
+    private final long nodeBits;
+    private final LongSupplier clock;
+    // (Millisekunden seit EPOCH << SEQUENCE_BITS) | Sequenz der zuletzt vergebenen Nummer
+    private final AtomicLong state = new AtomicLong();
+
+    @Autowired
+    public OrderNumberGenerator(@Value("${app.orders.node-id:0}") long nodeId) {
+        this(nodeId, System::currentTimeMillis);
+    }
+
+    // Uhr austauschbar, damit Tests Überlauf und zurückgehende Zeit erzeugen können
+    OrderNumberGenerator(long nodeId, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("app.orders.node-id muss zwischen 0 und " + MAX_NODE_ID + " liegen: " + nodeId);
+        }
+        this.nodeBits = nodeId << SEQUENCE_BITS;
+        this.clock = clock;
+    }
+
+    public String next() {
+        long id = nextId();
+        StringBuilder sb = new StringBuilder(PREFIX.length() + DIGITS).append(PREFIX);
+        String digits = Long.toString(id);
+        for (int i = digits.length(); i < DIGITS; i++) {
+            sb.append('0');
+        }
+        return sb.append(digits).toString();
+    }
+
+    public long nextId() {
+        while (true) {
+            long previous = state.get();
+            long now = (clock.getAsLong() - EPOCH) << SEQUENCE_BITS;
+            // Neue Millisekunde -> Sequenz 0, sonst hochzählen (Überlauf wandert in die Zeit)
+            long next = now > previous ? now : previous + 1;
+            if (state.compareAndSet(previous, next)) {
+                long millis = next >>> SEQUENCE_BITS;
+                long sequence = next & ((1L << SEQUENCE_BITS) - 1);
+                return (millis << (NODE_BITS + SEQUENCE_BITS)) | nodeBits | sequence;
+            }
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.puppyracer.backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.puppyracer.backend.model.Order;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asynchroner Checkout (app.checkout.async=true): Der Request prüft nur die
+ * Positionen und reiht die Bestellung ein; Preisberechnung, Reservierung und
+ * Speichern übernimmt ein Worker-Pool mit fester Queue. Ist die Queue voll,
+ * wird sofort abgelehnt statt den Request-Thread zu blockieren.
+ *
+ * Der Ausgang (in Arbeit / abgelehnt) wird nur im Speicher gehalten. Eingereihte,
+ * noch nicht gespeicherte Bestellungen gehen bei einem Absturz verloren; beim
+ * regulären Herunterfahren wird die Queue noch abgearbeitet.
+ */
+@Service
+public class OrderPipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderPipeline.class);
+
+    /** Zustand einer eingereihten Bestellung, solange sie nicht in der DB steht. */
+    public record Pending(Long userId, String error) {
+        public boolean failed() {
+            return error != null;
+        }
+    }
+
+    private final CheckoutService checkoutService;
+    private final OrderPricingService orderPricingService;
+    private final boolean enabled;
+    private final Duration shutdownTimeout;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, Long> inFlight = new ConcurrentHashMap<>();
+    private final Cache<String, Pending> failures;
+
+    public OrderPipeline(CheckoutService checkoutService,
+                         OrderPricingService orderPricingService,
+                         MeterRegistry meterRegistry,
+                         @Value("${app.checkout.async:false}") boolean enabled,
+                         @Value("${app.checkout.workers:4}") int workers,
+                         @Value("${app.checkout.queue-capacity:1000}") int queueCapacity,
+                         @Value("${app.checkout.failure-ttl:1h}") Duration failureTtl,
+                         @Value("${app.checkout.shutdown-timeout:30s}") Duration shutdownTimeout) {
+        this.checkoutService = checkoutService;
+        this.orderPricingService = orderPricingService;
+        this.enabled = enabled;
+        this.shutdownTimeout = shutdownTimeout;
+        this.failures = Caffeine.newBuilder()
+                .maximumSize(queueCapacity * 10L)
+                .expireAfterWrite(failureTtl)
+                .build();
+        if (enabled) {
+            this.executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("checkout-"),
+                    new ThreadPoolExecutor.AbortPolicy());
+            // Queue-Länge, aktive Worker usw. unter /actuator/metrics/executor.*
+            ExecutorServiceMetrics.monitor(meterRegistry, executor, "checkout");
+        } else {
+            this.executor = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Prüft die Bestellung und reiht sie ein. User, Bestellnummer und Status
+     * müssen bereits gesetzt sein.
+     *
+     * @throws IllegalArgumentException   bei ungültigen Positionen
+     * @throws RejectedExecutionException wenn die Queue voll ist
+     */
+    public void submit(Order order) {
+        orderPricingService.validateItems(order);
+
+        String orderNumber = order.getOrderNumber();
+        inFlight.put(orderNumber, order.getUser().getId());
+        try {
+            executor.execute(() -> process(order));
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(orderNumber);
+            throw e;
+        }
+    }
+
+    /**
+     * @return Zustand der Bestellung, solange sie eingereiht ist oder abgelehnt wurde;
+     * leer, wenn sie unbekannt ist (oder bereits gespeichert wurde)
+     */
+    public Optional<Pending> find(String orderNumber) {
+        Long userId = inFlight.get(orderNumber);
+        if (userId != null) {
+            return Optional.of(new Pending(userId, null));
+        }
+        return Optional.ofNullable(failures.getIfPresent(orderNumber));
+    }
+
+    private void process(Order order) {
+        String orderNumber = order.getOrderNumber();
+        try {
+            checkoutService.placeOrder(order);
+            log.info("Order created: {} for user {}", orderNumber, order.getUser().getEmail());
+        } catch (IllegalArgumentException | PriceMismatchException | OutOfStockException e) {
+            log.warn("Order {} rejected: {}", orderNumber, e.getMessage());
+            failures.put(orderNumber, new Pending(order.getUser().getId(), e.getMessage()));
+        } catch (RuntimeException e) {
+            log.error("Error creating order {}: {}", orderNumber, e.getMessage());
+            failures.put(orderNumber, new Pending(order.getUser().getId(), "Bestellung konnte nicht gespeichert werden"));
+        } finally {
+            // Erst nach dem Commit bzw. dem Eintrag in failures, damit keine Lücke entsteht
+            inFlight.remove(orderNumber);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        if (!executor.awaitTermination(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            log.warn("Checkout queue not drained, {} orders dropped", executor.shutdownNow().size());
+        }
+    }
+}
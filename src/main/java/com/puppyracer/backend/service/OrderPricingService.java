@@ -0,0 +1,130 @@
+package com.puppyracer.backend.service;
+
+import com.puppyracer.backend.model.Order;
+import com.puppyracer.backend.model.OrderItem;
+import com.puppyracer.backend.model.Product;
+import com.puppyracer.backend.repository.ProductRepository;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Berechnet Positionen, Zwischensumme, Versandkosten und Gesamtbetrag einer
+ * Bestellung serverseitig aus den aktuellen Produktdaten. Alle referenzierten
+ * Produkte werden mit einer Abfrage geladen.
+ *
+ * Vom Client mitgeschickte Preise und Summen sind optional; sind sie gesetzt
+ * und weichen (auf Cent gerundet) ab, wird die Bestellung abgelehnt.
+ */
+@Service
+public class OrderPricingService {
+
+    public static final int MAX_QUANTITY = 99;
+    private static final int SCALE = 2;
+
+    private final ProductRepository productRepository;
+    private final ShippingCostRule shippingCostRule;
+
+    public OrderPricingService(ProductRepository productRepository, ShippingCostRule shippingCostRule) {
+        this.productRepository = productRepository;
+        this.shippingCostRule = shippingCostRule;
+    }
+
+    /**
+     * Setzt Preis, Name und Bild jeder Position sowie alle Summen der Bestellung.
+     *
+     * @return die geladenen Produkte nach ID (z.B. für die Bestandsreservierung)
+     * @throws IllegalArgumentException bei leeren Bestellungen, ungültigen Mengen oder unbekannten Produkten
+     * @throws PriceMismatchException   wenn Client-Werte von der Berechnung abweichen
+     */
+    public Map<Long, Product> applyPricing(Order order) {
+        Set<Long> productIds = validateItems(order);
+        List<OrderItem> items = order.getItems();
+
+        Map<Long, Product> products = new HashMap<>();
+        for (Product product : productRepository.findAllById(productIds)) {
+            products.put(product.getId(), product);
+        }
+
+        List<String> mismatches = new ArrayList<>();
+        BigDecimal subtotal = BigDecimal.ZERO;
+        for (OrderItem item : items) {
+            Product product = products.get(item.getProductId());
+            if (product == null) {
+                throw new IllegalArgumentException("Produkt nicht gefunden: " + item.getProductId());
+            }
+            BigDecimal price = cents(product.getPrice());
+            if (differs(item.getPrice(), price)) {
+                mismatches.add("Preis von '" + product.getTitle() + "' ist " + price);
+            }
+            item.setPrice(price);
+            item.setProductName(product.getTitle());
+            item.setProductImage(product.getImageUrl());
+            item.setProductCategory(product.getCategory());
+            subtotal = subtotal.add(item.getTotalPrice());
+        }
+
+        BigDecimal shippingCost = cents(shippingCostRule.shippingCost(subtotal, order));
+        BigDecimal totalAmount = subtotal.add(shippingCost);
+
+        if (differs(order.getSubtotal(), subtotal)) {
+            mismatches.add("Zwischensumme ist " + subtotal);
+        }
+        if (differs(order.getShippingCost(), shippingCost)) {
+            mismatches.add("Versandkosten sind " + shippingCost);
+        }
+        if (differs(order.getTotalAmount(), totalAmount)) {
+            mismatches.add("Gesamtbetrag ist " + totalAmount);
+        }
+        if (!mismatches.isEmpty()) {
+            throw new PriceMismatchException("Preise haben sich geändert: " + String.join(", ", mismatches),
+                    subtotal, shippingCost, totalAmount);
+        }
+
+        order.setSubtotal(subtotal);
+        order.setShippingCost(shippingCost);
+        order.setTotalAmount(totalAmount);
+        return products;
+    }
+
+    /**
+     * Prüft die Positionen ohne Datenbankzugriff.
+     *
+     * @return die referenzierten Produkt-IDs
+     * @throws IllegalArgumentException bei leeren Bestellungen, fehlenden Produkt-IDs oder ungültigen Mengen
+     */
+    public Set<Long> validateItems(Order order) {
+        List<OrderItem> items = order.getItems();
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("Bestellung muss mindestens einen Artikel enthalten");
+        }
+
+        Set<Long> productIds = new HashSet<>();
+        for (OrderItem item : items) {
+            if (item.getProductId() == null) {
+                throw new IllegalArgumentException("Produkt-ID fehlt");
+            }
+            if (item.getQuantity() == null || item.getQuantity() < 1 || item.getQuantity() > MAX_QUANTITY) {
+                throw new IllegalArgumentException("Menge muss zwischen 1 und " + MAX_QUANTITY + " liegen");
+            }
+            productIds.add(item.getProductId());
+        }
+        return productIds;
+    }
+
+    // null = vom Client nicht angegeben
+    private static boolean differs(BigDecimal clientValue, BigDecimal computed) {
+        return clientValue != null && cents(clientValue).compareTo(computed) != 0;
+    }
+
+    private static BigDecimal cents(BigDecimal value) {
+        return value.setScale(SCALE, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,18 @@
+package com.puppyracer.backend.service;
+
+import com.puppyracer.backend.model.Order;
+import com.puppyracer.backend.model.OrderStatus;
+
+/**
+ * Status einer Bestellung hat sich geändert (nach dem Commit).
+ *
+ * @param order    gespeicherter Stand inkl. Positionen
+ * @param previous Status vorher, null bei neu angelegten Bestellungen
+ * @param current  neuer Status
+ */
+public record OrderStatusChangedEvent(Order order, OrderStatus previous, OrderStatus current) {
+
+    public Long orderId() {
+        return order.getId();
+    }
+}
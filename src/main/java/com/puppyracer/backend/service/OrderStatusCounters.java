@@ -0,0 +1,77 @@
+package com.puppyracer.backend.service;
+
+import com.puppyracer.backend.dto.StatusCount;
+import com.puppyracer.backend.model.OrderStatus;
+import com.puppyracer.backend.repository.OrderRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Anzahl Bestellungen pro Status im Speicher. Wird beim Start einmal per
+ * GROUP BY aufgebaut und danach über OrderStatusChangedEvent fortgeschrieben,
+ * damit die Admin-Übersicht ohne COUNT(*) auskommt.
+ */
+@Service
+public class OrderStatusCounters {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderStatusCounters.class);
+
+    private final OrderRepository orderRepository;
+    // Wird nur im Konstruktor befüllt, danach ändern sich nur die Zähler
+    private final Map<OrderStatus, AtomicLong> counts = new EnumMap<>(OrderStatus.class);
+
+    public OrderStatusCounters(OrderRepository orderRepository, MeterRegistry meterRegistry) {
+        this.orderRepository = orderRepository;
+        for (OrderStatus status : OrderStatus.values()) {
+            AtomicLong count = new AtomicLong();
+            counts.put(status, count);
+            Gauge.builder("orders.status", count, AtomicLong::get)
+                    .tag("status", status.name())
+                    .register(meterRegistry);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        Map<OrderStatus, Long> fromDb = new EnumMap<>(OrderStatus.class);
+        for (StatusCount row : orderRepository.countByStatus()) {
+            fromDb.put(row.status(), row.count());
+        }
+        counts.forEach((status, count) -> count.set(fromDb.getOrDefault(status, 0L)));
+        log.info("Order status counters loaded: {}", snapshot());
+    }
+
+    @EventListener
+    public void onStatusChanged(OrderStatusChangedEvent event) {
+        if (event.previous() == event.current()) {
+            return;
+        }
+        if (event.previous() != null) {
+            counts.get(event.previous()).decrementAndGet();
+        }
+        counts.get(event.current()).incrementAndGet();
+    }
+
+    public long count(OrderStatus status) {
+        return counts.get(status).get();
+    }
+
+    public long total() {
+        return counts.values().stream().mapToLong(AtomicLong::get).sum();
+    }
+
+    public Map<OrderStatus, Long> snapshot() {
+        Map<OrderStatus, Long> snapshot = new EnumMap<>(OrderStatus.class);
+        counts.forEach((status, count) -> snapshot.put(status, count.get()));
+        return snapshot;
+    }
+}
@@ -0,0 +1,18 @@
+package com.puppyracer.backend.service;
+
+/**
+ * Für ein Produkt ist nicht genug Bestand vorhanden; die Bestellung wird nicht angelegt.
+ */
+public class OutOfStockException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Long productId;
+
+    public OutOfStockException(Long productId) {
+        super("Nicht genug Bestand für Produkt " + productId);
+        this.productId = productId;
+    }
+
+    public Long getProductId() { return productId; }
+}
@@ -0,0 +1,29 @@
+package com.puppyracer.backend.service;
+
+import java.math.BigDecimal;
+
+/**
+ * Vom Client gesendete Preise/Summen weichen von der serverseitigen Berechnung ab.
+ * Enthält die korrekten Werte, damit der Client seinen Warenkorb aktualisieren kann.
+ */
+public class PriceMismatchException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final BigDecimal subtotal;
+    private final BigDecimal shippingCost;
+    private final BigDecimal totalAmount;
+
+    public PriceMismatchException(String message, BigDecimal subtotal, BigDecimal shippingCost, BigDecimal totalAmount) {
+        super(message);
+        this.subtotal = subtotal;
+        this.shippingCost = shippingCost;
+        this.totalAmount = totalAmount;
+    }
+
+    public BigDecimal getSubtotal() { return subtotal; }
+
+    public BigDecimal getShippingCost() { return shippingCost; }
+
+    public BigDecimal getTotalAmount() { return totalAmount; }
+}
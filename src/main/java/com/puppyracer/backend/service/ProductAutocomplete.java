@@ -0,0 +1,227 @@
+package com.puppyracer.backend.service;
+
+import com.puppyracer.backend.model.Category;
+import com.puppyracer.backend.model.Product;
+import com.puppyracer.backend.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Typeahead für Produkttitel: sortiertes Array normalisierter Titel pro Kategorie
+ * (plus ein globales). Jeder Wortanfang im Titel ist ein eigener Eintrag, damit
+ * "leder" auch "Premium Lederleine" findet.
+ *
+ * Lesen ist lock-frei (volatile Snapshot + Binärsuche), Schreiben ersetzt den
+ * Snapshot inkrementell (Copy-on-Write) bei ProductChangedEvent.
+ */
+@Service
+public class ProductAutocomplete {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductAutocomplete.class);
+
+    // Maximal so viele Einträge pro Anfrage ansehen (hält die Latenz konstant)
+    private static final int MAX_SCAN = 256;
+    private static final int BUILD_BATCH_SIZE = 1000;
+
+    private static final Comparator<Entry> ORDER =
+            Comparator.comparing(Entry::key).thenComparing(entry -> entry.suggestion().id());
+
+    public record Suggestion(Long id, String title, String category) {
+    }
+
+    private record Entry(String key, Suggestion suggestion, boolean titleStart) {
+    }
+
+    // Unveränderlicher Stand; wird bei Änderungen komplett ersetzt
+    private record Snapshot(Entry[] all, Map<Category, Entry[]> byCategory) {
+    }
+
+    private final ProductRepository productRepository;
+
+    private volatile Snapshot snapshot;
+
+    // Kein synchronized: rebuild() liest per JDBC und würde unter virtuellen Threads den Carrier blockieren
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    public ProductAutocomplete(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+        Map<Category, Entry[]> byCategory = new EnumMap<>(Category.class);
+        for (Category category : Category.values()) {
+            byCategory.put(category, new Entry[0]);
+        }
+        this.snapshot = new Snapshot(new Entry[0], byCategory);
+    }
+
+    @EventListener({ApplicationReadyEvent.class, ProductsImportedEvent.class})
+    public void rebuild() {
+        writeLock.lock();
+        try {
+            buildSnapshot();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        writeLock.lock();
+        try {
+            applyChange(event);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void buildSnapshot() {
+        List<Entry> entries = new ArrayList<>();
+        long lastId = 0;
+        while (true) {
+            List<Product> batch = productRepository.findByIdGreaterThanOrderByIdAsc(lastId, Limit.of(BUILD_BATCH_SIZE));
+            if (batch.isEmpty()) {
+                break;
+            }
+            for (Product product : batch) {
+                entries.addAll(entriesFor(product));
+            }
+            lastId = batch.get(batch.size() - 1).getId();
+        }
+        Entry[] sorted = entries.toArray(Entry[]::new);
+        Arrays.sort(sorted, ORDER);
+
+        Map<Category, Entry[]> byCategory = new EnumMap<>(Category.class);
+        for (Category category : Category.values()) {
+            byCategory.put(category, Arrays.stream(sorted)
+                    .filter(entry -> category.getApiValue().equals(entry.suggestion().category()))
+                    .toArray(Entry[]::new));
+        }
+        snapshot = new Snapshot(sorted, byCategory);
+        log.info("Autocomplete built: {} entries", sorted.length);
+    }
+
+    private void applyChange(ProductChangedEvent event) {
+        List<Entry> added = event.isDeletion() ? List.of() : entriesFor(event.product());
+        Snapshot current = snapshot;
+
+        Map<Category, Entry[]> byCategory = new EnumMap<>(current.byCategory());
+        for (Category category : Category.values()) {
+            List<Entry> addedInCategory = added.stream()
+                    .filter(entry -> category.getApiValue().equals(entry.suggestion().category()))
+                    .toList();
+            Entry[] entries = byCategory.get(category);
+            if (!addedInCategory.isEmpty() || contains(entries, event.productId())) {
+                byCategory.put(category, replace(entries, event.productId(), addedInCategory));
+            }
+        }
+        snapshot = new Snapshot(replace(current.all(), event.productId(), added), byCategory);
+    }
+
+    /**
+     * Liefert bis zu limit Vorschläge für den Präfix. Treffer am Titelanfang
+     * und kürzere Titel werden bevorzugt.
+     */
+    public List<Suggestion> suggest(String prefix, Category category, int limit) {
+        String key = GermanTextAnalyzer.normalize(prefix);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        Snapshot current = snapshot;
+        Entry[] entries = category != null ? current.byCategory().get(category) : current.all();
+
+        List<Entry> candidates = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        for (int i = lowerBound(entries, key); i < entries.length && candidates.size() < MAX_SCAN; i++) {
+            Entry entry = entries[i];
+            if (!entry.key().startsWith(key)) {
+                break;
+            }
+            if (seen.add(entry.suggestion().id())) {
+                candidates.add(entry);
+            }
+        }
+        candidates.sort(Comparator.comparing((Entry entry) -> !entry.titleStart())
+                .thenComparingInt(entry -> entry.suggestion().title().length())
+                .thenComparing(entry -> entry.suggestion().title()));
+
+        return candidates.stream()
+                .limit(limit)
+                .map(Entry::suggestion)
+                .toList();
+    }
+
+    private static List<Entry> entriesFor(Product product) {
+        if (product.getTitle() == null || product.getCategory() == null) {
+            return List.of();
+        }
+        Suggestion suggestion = new Suggestion(product.getId(), product.getTitle(), product.getCategory().getApiValue());
+        String normalized = GermanTextAnalyzer.normalize(product.getTitle());
+
+        List<Entry> entries = new ArrayList<>();
+        entries.add(new Entry(normalized, suggestion, true));
+        for (int i = 1; i < normalized.length(); i++) {
+            if (normalized.charAt(i - 1) == ' ' && normalized.charAt(i) != ' ') {
+                entries.add(new Entry(normalized.substring(i), suggestion, false));
+            }
+        }
+        return entries;
+    }
+
+    // Entfernt alle Einträge des Produkts und fügt die neuen sortiert ein (O(n))
+    private static Entry[] replace(Entry[] current, Long productId, List<Entry> added) {
+        Entry[] insert = added.toArray(Entry[]::new);
+        Arrays.sort(insert, ORDER);
+
+        Entry[] result = new Entry[current.length + insert.length];
+        int n = 0;
+        int j = 0;
+        for (Entry entry : current) {
+            if (entry.suggestion().id().equals(productId)) {
+                continue;
+            }
+            while (j < insert.length && ORDER.compare(insert[j], entry) < 0) {
+                result[n++] = insert[j++];
+            }
+            result[n++] = entry;
+        }
+        while (j < insert.length) {
+            result[n++] = insert[j++];
+        }
+        return n == result.length ? result : Arrays.copyOf(result, n);
+    }
+
+    private static boolean contains(Entry[] entries, Long productId) {
+        for (Entry entry : entries) {
+            if (entry.suggestion().id().equals(productId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int lowerBound(Entry[] entries, String key) {
+        int low = 0;
+        int high = entries.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (entries[mid].key().compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
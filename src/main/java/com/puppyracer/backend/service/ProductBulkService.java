@@ -0,0 +1,386 @@
+package com.puppyracer.backend.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.puppyracer.backend.dto.ImportReport;
+import com.puppyracer.backend.model.Category;
+import com.puppyracer.backend.model.Product;
+import com.puppyracer.backend.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk-Import und -Export des Produktkatalogs.
+ *
+ * Import: JSON-Array oder CSV wird gestreamt gelesen, jede Zeile gegen die
+ * Jakarta-Constraints von Product validiert und in Batches (eine Transaktion
+ * pro Batch, JDBC-Batching) gespeichert. Zeilen mit ID aktualisieren ein
+ * bestehendes Produkt, Zeilen ohne ID legen ein neues an. Fehler werden pro
+ * Zeile gemeldet, gültige Zeilen trotzdem übernommen.
+ *
+ * Export: Keyset-Batches in Read-only-Transaktionen, als NDJSON oder CSV.
+ *
+ * Nach jedem Batch wird der Persistence Context geleert. Unter Open-in-View
+ * teilen sich alle Batches den EntityManager des Requests; ohne Leeren blieben
+ * alle importierten bzw. exportierten Produkte bis zum Ende des Requests verwaltet.
+ */
+@Service
+public class ProductBulkService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductBulkService.class);
+
+    public static final List<String> CSV_COLUMNS = List.of("id", "title", "description", "price", "category", "imageUrl", "stock");
+    private static final Set<String> REQUIRED_CSV_COLUMNS = Set.of("title", "description", "price", "category", "imageUrl");
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final byte NEWLINE = '\n';
+
+    private final ProductRepository productRepository;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final CatalogVersion catalogVersion;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int importBatchSize;
+    private final int exportBatchSize;
+
+    public ProductBulkService(ProductRepository productRepository,
+                              ObjectMapper objectMapper,
+                              Validator validator,
+                              CatalogVersion catalogVersion,
+                              EntityManager entityManager,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${app.import.batch-size:1000}") int importBatchSize,
+                              @Value("${app.export.batch-size:500}") int exportBatchSize) {
+        this.productRepository = productRepository;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.catalogVersion = catalogVersion;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.importBatchSize = importBatchSize;
+        this.exportBatchSize = exportBatchSize;
+    }
+
+    /**
+     * Erwartet ein JSON-Array von Produkten im Format von POST /api/product.
+     * Bricht bei syntaktisch kaputtem JSON ab; bis dahin gespeicherte Batches bleiben erhalten.
+     */
+    public ImportReport importJson(InputStream in) throws IOException {
+        Importer importer = new Importer();
+        try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("JSON-Array erwartet");
+            }
+            try {
+                JsonToken token;
+                while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+                    long row = importer.nextRow();
+                    // Als Baum lesen, damit ein Mapping-Fehler den Parser nicht mitten im Objekt stehen lässt
+                    JsonNode node = objectMapper.readTree(parser);
+                    try {
+                        importer.add(row, objectMapper.treeToValue(node, Product.class));
+                    } catch (JsonProcessingException e) {
+                        importer.error(row, "Ungültige Zeile: " + e.getOriginalMessage());
+                    }
+                }
+            } catch (JsonProcessingException e) {
+                importer.error(importer.currentRow(), "Ungültiges JSON, Import abgebrochen: " + e.getOriginalMessage());
+            }
+        }
+        return importer.finish();
+    }
+
+    /**
+     * Erwartet CSV mit Kopfzeile (Spalten siehe CSV_COLUMNS, Reihenfolge beliebig, id und stock optional).
+     * Kategorie als Enum-Name (LEINEN) oder API-Wert (leinen).
+     */
+    public ImportReport importCsv(InputStream in) throws IOException {
+        CsvReader csv = new CsvReader(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+        List<String> header = csv.next();
+        if (header == null) {
+            throw new IllegalArgumentException("CSV-Kopfzeile fehlt");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            // BOM am Dateianfang ignorieren
+            columns.put(header.get(i).replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : REQUIRED_CSV_COLUMNS) {
+            if (!columns.containsKey(required.toLowerCase(Locale.ROOT))) {
+                throw new IllegalArgumentException("CSV-Spalte fehlt: " + required);
+            }
+        }
+
+        Importer importer = new Importer();
+        try {
+            List<String> record;
+            while ((record = csv.next()) != null) {
+                long row = importer.nextRow();
+                try {
+                    importer.add(row, fromCsv(record, columns));
+                } catch (IllegalArgumentException e) {
+                    importer.error(row, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            importer.error(importer.currentRow(), "Ungültiges CSV, Import abgebrochen: " + e.getMessage());
+        }
+        return importer.finish();
+    }
+
+    public long writeNdjson(OutputStream out) throws IOException {
+        return export(out, product -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(product));
+                out.write(NEWLINE);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    public long writeCsv(OutputStream out) throws IOException {
+        out.write(String.join(",", CSV_COLUMNS).concat("\n").getBytes(StandardCharsets.UTF_8));
+        return export(out, product -> {
+            String line = String.join(",",
+                    String.valueOf(product.getId()),
+                    CsvReader.quote(product.getTitle()),
+                    CsvReader.quote(product.getDescription()),
+                    product.getPrice() != null ? product.getPrice().toPlainString() : "",
+                    product.getCategory() != null ? product.getCategory().name() : "",
+                    CsvReader.quote(product.getImageUrl()),
+                    product.getStock() != null ? product.getStock().toString() : "") + "\n";
+            try {
+                out.write(line.getBytes(StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private long export(OutputStream out, Consumer<Product> writer) throws IOException {
+        long written = 0;
+        long lastId = 0;
+        while (true) {
+            final long after = lastId;
+            List<Product> batch = readOnlyTransaction.execute(status ->
+                    productRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(exportBatchSize)));
+            if (batch == null || batch.isEmpty()) {
+                break;
+            }
+            batch.forEach(writer);
+            entityManager.clear();
+            out.flush();
+            written += batch.size();
+            lastId = batch.get(batch.size() - 1).getId();
+        }
+        return written;
+    }
+
+    private static Product fromCsv(List<String> record, Map<String, Integer> columns) {
+        Product product = new Product();
+        String id = field(record, columns, "id");
+        if (id != null) {
+            try {
+                product.setId(Long.valueOf(id));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Ungültige ID: " + id);
+            }
+        }
+        product.setTitle(field(record, columns, "title"));
+        product.setDescription(field(record, columns, "description"));
+        product.setImageUrl(field(record, columns, "imageurl"));
+
+        String price = field(record, columns, "price");
+        if (price != null) {
+            try {
+                product.setPrice(new BigDecimal(price.replace(',', '.')));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Ungültiger Preis: " + price);
+            }
+        }
+        String stock = field(record, columns, "stock");
+        if (stock != null) {
+            try {
+                product.setStock(Integer.valueOf(stock));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Ungültiger Bestand: " + stock);
+            }
+        }
+        String category = field(record, columns, "category");
+        if (category != null) {
+            product.setCategory(parseCategory(category));
+        }
+        return product;
+    }
+
+    private static Category parseCategory(String value) {
+        for (Category category : Category.values()) {
+            if (category.name().equalsIgnoreCase(value)) {
+                return category;
+            }
+        }
+        return Category.fromApiValue(value);
+    }
+
+    // Leere Felder werden zu null, damit @NotBlank/@NotNull greifen
+    private static String field(List<String> record, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= record.size()) {
+            return null;
+        }
+        String value = record.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    // Sammelt gültige Zeilen und schreibt sie batchweise; zählt Ergebnisse mit
+    private final class Importer {
+        private final List<ImportReport.RowError> errors = new ArrayList<>();
+        private final List<Long> batchRows = new ArrayList<>();
+        private final List<Product> batch = new ArrayList<>();
+        private long row;
+        private long created;
+        private long updated;
+        private long failed;
+
+        long nextRow() {
+            return ++row;
+        }
+
+        long currentRow() {
+            return row;
+        }
+
+        void add(long rowNumber, Product product) {
+            Set<ConstraintViolation<Product>> violations = validator.validate(product);
+            if (!violations.isEmpty()) {
+                error(rowNumber, violations.stream()
+                        .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining("; ")));
+                return;
+            }
+            batchRows.add(rowNumber);
+            batch.add(product);
+            if (batch.size() >= importBatchSize) {
+                flush();
+            }
+        }
+
+        void error(long rowNumber, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new ImportReport.RowError(rowNumber, message));
+            }
+        }
+
+        ImportReport finish() {
+            flush();
+            if (created > 0 || updated > 0) {
+                catalogVersion.publish(new ProductsImportedEvent(created, updated));
+                // Die Listener laden den Katalog neu (findAll) - auch diese Produkte nicht festhalten
+                entityManager.clear();
+            }
+            // Fehler aus Batches werden erst beim Speichern erkannt -> nach Zeile sortieren
+            errors.sort(Comparator.comparingLong(ImportReport.RowError::row));
+            log.info("Product import: {} rows, {} created, {} updated, {} failed", row, created, updated, failed);
+            return new ImportReport(row, created, updated, failed, errors);
+        }
+
+        private void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            // Vor dem Speichern zählen, danach haben auch neue Produkte eine ID
+            long withId = batch.stream().filter(product -> product.getId() != null).count();
+            try {
+                List<Integer> missing = transactionTemplate.execute(status -> saveBatch());
+                for (int index : missing) {
+                    error(batchRows.get(index), "Produkt nicht gefunden: " + batch.get(index).getId());
+                }
+                created += batch.size() - withId;
+                updated += withId - missing.size();
+            } catch (RuntimeException e) {
+                // Ganzer Batch wurde zurückgerollt
+                log.warn("Product import batch failed: {}", e.getMessage());
+                for (Long rowNumber : batchRows) {
+                    error(rowNumber, "Speichern fehlgeschlagen: " + e.getMessage());
+                }
+            }
+            batch.clear();
+            batchRows.clear();
+        }
+
+        // Bestehende Produkte des Batches mit einer Abfrage laden, dann alles in einem saveAll schreiben.
+        // Liefert die Positionen der Zeilen, deren ID nicht existiert.
+        private List<Integer> saveBatch() {
+            List<Long> ids = batch.stream().map(Product::getId).filter(id -> id != null).toList();
+            Map<Long, Product> existing = ids.isEmpty() ? Map.of()
+                    : productRepository.findAllById(ids).stream()
+                            .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+            List<Product> toSave = new ArrayList<>(batch.size());
+            List<Integer> missing = new ArrayList<>();
+            for (int i = 0; i < batch.size(); i++) {
+                Product product = batch.get(i);
+                if (product.getId() == null) {
+                    toSave.add(product);
+                    continue;
+                }
+                Product target = existing.get(product.getId());
+                if (target == null) {
+                    missing.add(i);
+                    continue;
+                }
+                target.setTitle(product.getTitle());
+                target.setDescription(product.getDescription());
+                target.setCategory(product.getCategory());
+                target.setPrice(product.getPrice());
+                target.setImageUrl(product.getImageUrl());
+                // Fehlende/leere stock-Spalte lässt den Bestand unverändert
+                if (product.getStock() != null) {
+                    target.setStock(product.getStock());
+                }
+                toSave.add(target);
+            }
+            productRepository.saveAll(toSave);
+            // Schreiben und loslassen, sonst prüft jeder weitere Commit alle bisherigen Produkte
+            entityManager.flush();
+            entityManager.clear();
+            return missing;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.puppyracer.backend.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.puppyracer.backend.model.Category;
+import com.puppyracer.backend.model.Product;
+import com.puppyracer.backend.repository.ProductRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Lese-Cache für den öffentlichen Produktkatalog (by-id, by-category, Gesamtliste).
+ * Schreibzugriffe laufen weiter direkt über das Repository; der Cache wird
+ * über ProductChangedEvent gezielt invalidiert. Die TTL ist nur ein Sicherheitsnetz.
+ */
+@Service
+public class ProductCatalogCache {
+
+    private static final String ALL = "*";
+
+    private final ProductRepository productRepository;
+    private final AsyncCache<Long, Product> byId;
+    private final AsyncCache<String, List<Product>> lists;
+
+    public ProductCatalogCache(ProductRepository productRepository,
+                               MeterRegistry meterRegistry,
+                               @Value("${app.catalog-cache.max-products:10000}") long maxProducts,
+                               @Value("${app.catalog-cache.ttl:10m}") Duration ttl) {
+        this.productRepository = productRepository;
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maxProducts)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        // Listen werden nach Anzahl Produkte gewichtet -> Speicher bleibt begrenzt
+        this.lists = Caffeine.newBuilder()
+                .maximumWeight(maxProducts)
+                .<String, List<Product>>weigher((key, products) -> Math.max(1, products.size()))
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "catalogById");
+        CaffeineCacheMetrics.monitor(meterRegistry, lists, "catalogLists");
+        Gauge.builder("catalog.cache.hit.ratio", byId, cache -> cache.synchronous().stats().hitRate())
+                .tag("cache", "catalogById")
+                .register(meterRegistry);
+        Gauge.builder("catalog.cache.hit.ratio", lists, cache -> cache.synchronous().stats().hitRate())
+                .tag("cache", "catalogLists")
+                .register(meterRegistry);
+    }
+
+    public Optional<Product> findById(Long id) {
+        return Optional.ofNullable(CacheLoads.getOrLoad(byId, id, key -> productRepository.findById(key).orElse(null)));
+    }
+
+    public List<Product> findAll() {
+        return CacheLoads.getOrLoad(lists, ALL, key -> List.copyOf(productRepository.findAll()));
+    }
+
+    public List<Product> findByCategory(Category category) {
+        return CacheLoads.getOrLoad(lists, category.getApiValue(), key -> List.copyOf(productRepository.findByCategory(category)));
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        byId.synchronous().invalidate(event.productId());
+        lists.synchronous().invalidate(ALL);
+        if (event.previousCategory() != null) {
+            lists.synchronous().invalidate(event.previousCategory().getApiValue());
+        }
+        if (event.product() != null && event.product().getCategory() != null) {
+            lists.synchronous().invalidate(event.product().getCategory().getApiValue());
+        }
+    }
+
+    // Bestand steckt im Produkt-JSON; Listen enthalten dieselben Produkte
+    @EventListener
+    public void onStockChanged(StockChangedEvent event) {
+        byId.synchronous().invalidateAll(event.productIds());
+        lists.synchronous().invalidateAll();
+    }
+
+    @EventListener
+    public void onProductsImported(ProductsImportedEvent event) {
+        byId.synchronous().invalidateAll();
+        lists.synchronous().invalidateAll();
+    }
+}
@@ -0,0 +1,28 @@
+package com.puppyracer.backend.service;
+
+import com.puppyracer.backend.model.Category;
+import com.puppyracer.backend.model.Product;
+
+/**
+ * Wird nach jeder Änderung an einem Produkt veröffentlicht (nach dem Commit).
+ * Caches und Indizes hängen sich per @EventListener daran.
+ * Veröffentlichen über CatalogVersion.publish, damit sich die Katalog-ETags ändern.
+ *
+ * @param productId        ID des geänderten Produkts
+ * @param previousCategory Kategorie vor der Änderung (null bei neuen Produkten)
+ * @param product          aktueller Stand, null wenn das Produkt gelöscht wurde
+ */
+public record ProductChangedEvent(Long productId, Category previousCategory, Product product) {
+
+    public static ProductChangedEvent saved(Product product, Category previousCategory) {
+        return new ProductChangedEvent(product.getId(), previousCategory, product);
+    }
+
+    public static ProductChangedEvent deleted(Long productId, Category previousCategory) {
+        return new ProductChangedEvent(productId, previousCategory, null);
+    }
+
+    public boolean isDeletion() {
+        return product == null;
+    }
+}
@@ -0,0 +1,266 @@
+package com.puppyracer.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.puppyracer.backend.model.Category;
+import com.puppyracer.backend.model.Product;
+import com.puppyracer.backend.repository.ProductRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Fertig serialisierter Produktkatalog: JSON-Bytes pro Produkt sowie für die
+ * Gesamtliste und jede Kategorie-Liste (optional zusätzlich gzip-komprimiert).
+ * Der Controller schreibt die Bytes direkt in die Antwort, ohne Jackson pro Request.
+ *
+ * Bei Änderungen wird nur das betroffene Produkt neu serialisiert; die Listen
+ * werden beim nächsten Abruf aus den vorhandenen Produkt-Bytes zusammengesetzt.
+ * Aktualisiert wird in den Event-Listenern, also bevor CatalogVersion den ETag erhöht.
+ *
+ * Der komplette Neuaufbau lädt ohne Sperre. Produkte, die währenddessen per Event
+ * aktualisiert werden, behalten beim Austausch den Stand aus dem Event - der
+ * geladene kann älter sein.
+ */
+@Service
+public class ProductJsonSnapshot {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductJsonSnapshot.class);
+
+    private static final String ALL = "*";
+
+    /** JSON-Bytes, gzip ist null wenn Komprimierung aus ist (oder bei Einzelprodukten) */
+    public record Encoded(byte[] json, byte[] gzip) {
+    }
+
+    private record Entry(Category category, byte[] json) {
+    }
+
+    private final ProductRepository productRepository;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final boolean gzip;
+    private final int gzipLevel;
+
+    // Sortiert nach ID, wie die Listen ausgeliefert werden
+    private final NavigableMap<Long, Entry> products = new ConcurrentSkipListMap<>();
+    private final Map<String, Encoded> listings = new ConcurrentHashMap<>();
+    // Änderungen und Listen-Aufbau nacheinander, damit keine veraltete Liste gespeichert wird
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    // Während eines Neuaufbaus per Event geänderte Produkt-IDs, sonst null (nur unter lock)
+    private Set<Long> changedDuringRebuild;
+    private volatile boolean ready;
+
+    public ProductJsonSnapshot(ProductRepository productRepository,
+                               ObjectMapper objectMapper,
+                               MeterRegistry meterRegistry,
+                               @Value("${app.catalog-snapshot.enabled:false}") boolean enabled,
+                               @Value("${app.catalog-snapshot.gzip:true}") boolean gzip,
+                               @Value("${app.catalog-snapshot.gzip-level:9}") int gzipLevel) {
+        this.productRepository = productRepository;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.gzip = gzip;
+        this.gzipLevel = gzipLevel;
+
+        Gauge.builder("catalog.snapshot.bytes", products,
+                        map -> map.values().stream().mapToLong(entry -> entry.json().length).sum())
+                .register(meterRegistry);
+    }
+
+    /** false solange der Modus aus ist oder der erste Aufbau noch läuft */
+    public boolean isReady() {
+        return ready;
+    }
+
+    public boolean isGzipEnabled() {
+        return gzip;
+    }
+
+    public Encoded product(Long id) {
+        Entry entry = products.get(id);
+        return entry == null ? null : new Encoded(entry.json(), null);
+    }
+
+    public Encoded all() {
+        return listing(ALL, null);
+    }
+
+    public Encoded byCategory(Category category) {
+        return listing(category.getApiValue(), category);
+    }
+
+    @EventListener({ApplicationReadyEvent.class, ProductsImportedEvent.class})
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        rebuildLock.lock();
+        try {
+            lock.lock();
+            try {
+                changedDuringRebuild = new HashSet<>();
+            } finally {
+                lock.unlock();
+            }
+
+            Map<Long, Entry> loaded = new HashMap<>();
+            for (Product product : productRepository.findAll()) {
+                loaded.put(product.getId(), entry(product));
+            }
+
+            lock.lock();
+            try {
+                // Per Event geänderte (auch gelöschte) Produkte bleiben, wie das Event sie hinterlassen hat
+                products.keySet().removeIf(id -> !loaded.containsKey(id) && !changedDuringRebuild.contains(id));
+                loaded.forEach((id, entry) -> {
+                    if (!changedDuringRebuild.contains(id)) {
+                        products.put(id, entry);
+                    }
+                });
+                listings.clear();
+            } finally {
+                changedDuringRebuild = null;
+                lock.unlock();
+            }
+            ready = true;
+            log.info("Product JSON snapshot built for {} products", loaded.size());
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        Entry entry = event.isDeletion() ? null : entry(event.product());
+        lock.lock();
+        try {
+            if (entry == null) {
+                products.remove(event.productId());
+            } else {
+                products.put(event.productId(), entry);
+            }
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.add(event.productId());
+            }
+            listings.remove(ALL);
+            if (event.previousCategory() != null) {
+                listings.remove(event.previousCategory().getApiValue());
+            }
+            if (entry != null && entry.category() != null) {
+                listings.remove(entry.category().getApiValue());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Bestand steckt im Produkt-JSON: betroffene Produkte neu laden
+    @EventListener
+    public void onStockChanged(StockChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        Map<Long, Entry> reloaded = new HashMap<>();
+        for (Product product : productRepository.findAllById(event.productIds())) {
+            reloaded.put(product.getId(), entry(product));
+        }
+        lock.lock();
+        try {
+            Set<Category> affected = new HashSet<>();
+            for (Long id : event.productIds()) {
+                Entry previous = reloaded.containsKey(id) ? products.put(id, reloaded.get(id)) : products.remove(id);
+                if (previous != null && previous.category() != null) {
+                    affected.add(previous.category());
+                }
+            }
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.addAll(event.productIds());
+            }
+            listings.remove(ALL);
+            affected.forEach(category -> listings.remove(category.getApiValue()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Encoded listing(String key, Category category) {
+        Encoded cached = listings.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        lock.lock();
+        try {
+            return listings.computeIfAbsent(key, k -> encode(concat(category)));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // JSON-Array aus den vorhandenen Produkt-Bytes, ohne erneutes Serialisieren
+    private byte[] concat(Category category) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write('[');
+        boolean first = true;
+        for (Entry entry : products.values()) {
+            if (category != null && entry.category() != category) {
+                continue;
+            }
+            if (!first) {
+                out.write(',');
+            }
+            out.writeBytes(entry.json());
+            first = false;
+        }
+        out.write(']');
+        return out.toByteArray();
+    }
+
+    private Encoded encode(byte[] json) {
+        if (!gzip) {
+            return new Encoded(json, null);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4 + 64);
+        // Wird nur bei Änderungen komprimiert, daher lohnt sich eine hohe Stufe
+        try (GZIPOutputStream compressed = new GZIPOutputStream(out) {
+            {
+                def.setLevel(gzipLevel);
+            }
+        }) {
+            compressed.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new Encoded(json, out.toByteArray());
+    }
+
+    private Entry entry(Product product) {
+        try {
+            return new Entry(product.getCategory(), objectMapper.writeValueAsBytes(product));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Produkt " + product.getId() + " nicht serialisierbar", e);
+        }
+    }
+}
@@ -0,0 +1,390 @@
+package com.puppyracer.backend.service;
+
+import com.puppyracer.backend.model.Category;
+import com.puppyracer.backend.model.Product;
+import com.puppyracer.backend.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Eingebetteter invertierter Index über Titel und Beschreibung der Produkte.
+ * Ersetzt die LIKE '%...%'-Suche (Full Table Scan) durch Lookups im Speicher.
+ *
+ * - Terme werden mit dem GermanTextAnalyzer normalisiert und gestemmt.
+ * - Titel-Terme werden zusätzlich mit ihren Endstücken indexiert, damit
+ *   Komposita gefunden werden ("halsband" findet "Hundehalsband").
+ * - Suchbegriffe ab 3 Zeichen matchen als Präfix, alle Begriffe müssen passen (AND).
+ * - Ranking: Feldgewicht (Titel > Beschreibung) x IDF, Treffer auf den ganzen Term zählen mehr.
+ *
+ * Der Index wird beim Start aus der Datenbank aufgebaut und über ProductChangedEvent aktuell gehalten,
+ * StockChangedEvent tauscht nur die gespeicherten Produkte aus (Bestand steckt im Suchtreffer).
+ * Der Neuaufbau liest seine Batches ohne Sperre; Produkte, die währenddessen per Event
+ * geändert werden, überspringt er, damit kein älterer Batch-Stand den Event-Stand ersetzt.
+ */
+@Service
+public class ProductSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    private static final float TITLE_WEIGHT = 3.0f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+    private static final float COMPOUND_PART_FACTOR = 0.5f;
+    private static final float PREFIX_MATCH_FACTOR = 0.8f;
+    private static final int MIN_PREFIX_LENGTH = 3;
+    private static final int MAX_PREFIX_EXPANSION = 256;
+    private static final int BUILD_BATCH_SIZE = 1000;
+
+    private final ProductRepository productRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    // Term -> Postings (nach interner Dokumentnummer sortiert)
+    private final TreeMap<String, Postings> postings = new TreeMap<>();
+    // Produkt-ID -> interne Dokumentnummer
+    private final Map<Long, Integer> docIds = new HashMap<>();
+    // Interne Dokumentnummer -> Produkt (null = gelöscht)
+    private Product[] docs = new Product[1024];
+    private int nextDocId = 0;
+    // Während eines Neuaufbaus per Event geänderte Produkt-IDs, sonst null (nur unter Write-Lock)
+    private Set<Long> changedDuringRebuild;
+    private volatile boolean ready = false;
+
+    public ProductSearchIndex(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    // Nach einem Bulk-Import komplett neu indexieren statt pro Zeile
+    @EventListener({ApplicationReadyEvent.class, ProductsImportedEvent.class})
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            long start = System.currentTimeMillis();
+            lock.writeLock().lock();
+            try {
+                changedDuringRebuild = new HashSet<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            long lastId = 0;
+            int count = 0;
+            try {
+                while (true) {
+                    List<Product> batch = productRepository.findByIdGreaterThanOrderByIdAsc(lastId, Limit.of(BUILD_BATCH_SIZE));
+                    if (batch.isEmpty()) {
+                        break;
+                    }
+                    lock.writeLock().lock();
+                    try {
+                        for (Product product : batch) {
+                            // Per Event geänderte (auch gelöschte) Produkte sind aktueller als der Batch
+                            if (!changedDuringRebuild.contains(product.getId())) {
+                                index(product);
+                            }
+                        }
+                    } finally {
+                        lock.writeLock().unlock();
+                    }
+                    count += batch.size();
+                    lastId = batch.get(batch.size() - 1).getId();
+                }
+            } finally {
+                // Neu indexierte Produkte hinterlassen Lücken in den Dokumentnummern
+                lock.writeLock().lock();
+                try {
+                    changedDuringRebuild = null;
+                    compactIfNeeded();
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+            ready = true;
+            log.info("Product search index built: {} products in {} ms", count, System.currentTimeMillis() - start);
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (event.isDeletion()) {
+                remove(event.productId());
+            } else {
+                index(event.product());
+                compactIfNeeded();
+            }
+            markChanged(List.of(event.productId()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Treffer liefern die gespeicherten Produkte samt Bestand aus: nur austauschen, Terme bleiben gleich.
+    // Gelesen wird unter dem Write-Lock, sonst könnte ein früher geladener Stand einen späteren überschreiben.
+    @EventListener
+    public void onStockChanged(StockChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            for (Product product : productRepository.findAllById(event.productIds())) {
+                Integer doc = docIds.get(product.getId());
+                if (doc == null) {
+                    // Noch nicht indexiert: nur im Neuaufbau, der es sonst gleich überspringt
+                    if (changedDuringRebuild != null) {
+                        index(product);
+                    }
+                    continue;
+                }
+                Product stored = docs[doc];
+                if (Objects.equals(stored.getTitle(), product.getTitle())
+                        && Objects.equals(stored.getDescription(), product.getDescription())) {
+                    docs[doc] = product;
+                } else {
+                    // Texte schon geändert, ProductChangedEvent steht noch aus: neu indexieren
+                    index(product);
+                }
+            }
+            markChanged(event.productIds());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Sucht Produkte, deren Titel oder Beschreibung alle Suchbegriffe enthalten.
+     * Ergebnis ist nach Relevanz sortiert.
+     */
+    public List<Product> search(String query, Category category) {
+        List<String> queryTerms = GermanTextAnalyzer.terms(query);
+        if (queryTerms.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            List<List<Expansion>> expanded = new ArrayList<>(queryTerms.size());
+            for (String term : queryTerms) {
+                List<Expansion> expansions = expand(term);
+                if (expansions.isEmpty()) {
+                    return List.of();
+                }
+                expanded.add(expansions);
+            }
+            // Mit dem seltensten Begriff beginnen, die übrigen nur noch für diese Kandidaten prüfen
+            expanded.sort(Comparator.comparingInt(ProductSearchIndex::candidateCount));
+
+            Map<Integer, Float> scores = new HashMap<>();
+            for (Expansion expansion : expanded.get(0)) {
+                Postings p = expansion.postings();
+                for (int i = 0; i < p.size; i++) {
+                    int doc = p.docs[i];
+                    Product product = docs[doc];
+                    if (product == null || (category != null && product.getCategory() != category)) {
+                        continue;
+                    }
+                    scores.merge(doc, p.weights[i] * expansion.factor(), Math::max);
+                }
+            }
+
+            for (int t = 1; t < expanded.size() && !scores.isEmpty(); t++) {
+                List<Expansion> expansions = expanded.get(t);
+                scores.entrySet().removeIf(entry -> {
+                    float best = bestScore(expansions, entry.getKey());
+                    if (best == 0f) {
+                        return true;
+                    }
+                    entry.setValue(entry.getValue() + best);
+                    return false;
+                });
+            }
+
+            List<Map.Entry<Integer, Float>> ranked = new ArrayList<>(scores.entrySet());
+            ranked.sort(Map.Entry.<Integer, Float>comparingByValue().reversed()
+                    .thenComparing(Map.Entry.comparingByKey()));
+
+            List<Product> result = new ArrayList<>(ranked.size());
+            for (Map.Entry<Integer, Float> entry : ranked) {
+                result.add(docs[entry.getKey()]);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Exakter Term plus (ab MIN_PREFIX_LENGTH) alle Terme mit diesem Präfix
+    private List<Expansion> expand(String term) {
+        List<Expansion> expansions = new ArrayList<>();
+        if (term.length() < MIN_PREFIX_LENGTH) {
+            Postings exact = postings.get(term);
+            if (exact != null) {
+                expansions.add(new Expansion(exact, idf(exact)));
+            }
+            return expansions;
+        }
+        NavigableMap<String, Postings> matches = postings.subMap(term, true, term + Character.MAX_VALUE, false);
+        for (Map.Entry<String, Postings> match : matches.entrySet()) {
+            if (expansions.size() >= MAX_PREFIX_EXPANSION) {
+                break;
+            }
+            float factor = match.getKey().length() == term.length() ? 1.0f : PREFIX_MATCH_FACTOR;
+            expansions.add(new Expansion(match.getValue(), factor * idf(match.getValue())));
+        }
+        return expansions;
+    }
+
+    private float bestScore(List<Expansion> expansions, int doc) {
+        float best = 0f;
+        for (Expansion expansion : expansions) {
+            Postings p = expansion.postings();
+            int idx = Arrays.binarySearch(p.docs, 0, p.size, doc);
+            if (idx >= 0) {
+                best = Math.max(best, p.weights[idx] * expansion.factor());
+            }
+        }
+        return best;
+    }
+
+    private float idf(Postings p) {
+        return (float) Math.log(1.0 + (double) docIds.size() / Math.max(1, p.size));
+    }
+
+    private static int candidateCount(List<Expansion> expansions) {
+        int count = 0;
+        for (Expansion expansion : expansions) {
+            count += expansion.postings().size;
+        }
+        return count;
+    }
+
+    // Muss unter Write-Lock aufgerufen werden
+    private void markChanged(Collection<Long> productIds) {
+        if (changedDuringRebuild != null) {
+            changedDuringRebuild.addAll(productIds);
+        }
+    }
+
+    // Muss unter Write-Lock aufgerufen werden
+    private void index(Product product) {
+        remove(product.getId());
+
+        Map<String, Float> weights = new HashMap<>();
+        for (String term : GermanTextAnalyzer.terms(product.getTitle())) {
+            weights.merge(term, TITLE_WEIGHT, Float::sum);
+            for (int start = 1; term.length() - start >= GermanTextAnalyzer.MIN_COMPOUND_PART; start++) {
+                weights.merge(term.substring(start), TITLE_WEIGHT * COMPOUND_PART_FACTOR, Math::max);
+            }
+        }
+        for (String term : GermanTextAnalyzer.terms(product.getDescription())) {
+            weights.merge(term, DESCRIPTION_WEIGHT, Float::sum);
+        }
+
+        // Neue Dokumentnummern sind immer die größten -> Postings bleiben durch Anhängen sortiert
+        int doc = nextDocId++;
+        if (doc == docs.length) {
+            docs = Arrays.copyOf(docs, docs.length * 2);
+        }
+        docs[doc] = product;
+        docIds.put(product.getId(), doc);
+        for (Map.Entry<String, Float> entry : weights.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), key -> new Postings()).append(doc, entry.getValue());
+        }
+    }
+
+    // Gelöschte Dokumentnummern werden nicht wiederverwendet; bei zu vielen Lücken neu nummerieren
+    private void compactIfNeeded() {
+        if (nextDocId < 2 * docIds.size() + 1024) {
+            return;
+        }
+        Product[] live = Arrays.stream(docs, 0, nextDocId)
+                .filter(product -> product != null)
+                .toArray(Product[]::new);
+        postings.clear();
+        docIds.clear();
+        docs = new Product[Math.max(1024, live.length * 2)];
+        nextDocId = 0;
+        for (Product product : live) {
+            index(product);
+        }
+    }
+
+    // Muss unter Write-Lock aufgerufen werden
+    private void remove(Long productId) {
+        Integer doc = docIds.remove(productId);
+        if (doc == null) {
+            return;
+        }
+        Product old = docs[doc];
+        docs[doc] = null;
+
+        // Terme des alten Stands erneut berechnen statt pro Dokument zu speichern
+        List<String> terms = new ArrayList<>(GermanTextAnalyzer.terms(old.getTitle()));
+        for (String term : GermanTextAnalyzer.terms(old.getTitle())) {
+            for (int start = 1; term.length() - start >= GermanTextAnalyzer.MIN_COMPOUND_PART; start++) {
+                terms.add(term.substring(start));
+            }
+        }
+        terms.addAll(GermanTextAnalyzer.terms(old.getDescription()));
+        for (String term : terms) {
+            Postings p = postings.get(term);
+            if (p != null && p.remove(doc) && p.size == 0) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    private record Expansion(Postings postings, float factor) {
+    }
+
+    // Sortierte Liste (Dokumentnummer, Gewicht) als primitive Arrays
+    private static final class Postings {
+        int[] docs = new int[4];
+        float[] weights = new float[4];
+        int size;
+
+        void append(int doc, float weight) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            docs[size] = doc;
+            weights[size] = weight;
+            size++;
+        }
+
+        boolean remove(int doc) {
+            int idx = Arrays.binarySearch(docs, 0, size, doc);
+            if (idx < 0) {
+                return false;
+            }
+            System.arraycopy(docs, idx + 1, docs, idx, size - idx - 1);
+            System.arraycopy(weights, idx + 1, weights, idx, size - idx - 1);
+            size--;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.puppyracer.backend.service;
+
+/**
+ * Wird nach einem Bulk-Import veröffentlicht. Statt eines ProductChangedEvent
+ * pro Zeile bauen Caches und Indizes sich einmal komplett neu auf.
+ *
+ * @param created Anzahl neu angelegter Produkte
+ * @param updated Anzahl aktualisierter Produkte
+ */
+public record ProductsImportedEvent(long created, long updated) {
+}
@@ -0,0 +1,89 @@
+package com.puppyracer.backend.service;
+
+import com.puppyracer.backend.model.Product;
+import com.puppyracer.backend.model.Review;
+import com.puppyracer.backend.repository.ProductRepository;
+import com.puppyracer.backend.repository.ReviewRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+
+/**
+ * Speichert/löscht Reviews und schreibt in derselben Transaktion die
+ * Bewertungsaggregate des Produkts fort. Nach dem Commit wird ein
+ * ProductChangedEvent veröffentlicht, damit Caches die neuen Werte zeigen.
+ */
+@Service
+public class ReviewService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReviewService.class);
+
+    private final ReviewRepository reviewRepository;
+    private final ProductRepository productRepository;
+    private final CatalogVersion catalogVersion;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean rebuildOnStartup;
+
+    public ReviewService(ReviewRepository reviewRepository,
+                         ProductRepository productRepository,
+                         CatalogVersion catalogVersion,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${app.ratings.rebuild-on-startup:false}") boolean rebuildOnStartup) {
+        this.reviewRepository = reviewRepository;
+        this.productRepository = productRepository;
+        this.catalogVersion = catalogVersion;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.rebuildOnStartup = rebuildOnStartup;
+    }
+
+    // Bestehende Reviews (vor Einführung der Aggregate) einmalig übernehmen
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildRatingsOnStartup() {
+        if (rebuildOnStartup) {
+            int updated = transactionTemplate.execute(status -> productRepository.rebuildRatings());
+            log.info("Rebuilt rating aggregates for {} products", updated);
+        }
+    }
+
+    public Review create(Review review) {
+        Long productId = review.getProduct().getId();
+        Review saved = transactionTemplate.execute(status -> {
+            Review result = reviewRepository.save(review);
+            productRepository.updateRating(productId, review.getStars(), 1, review.getStars());
+            return result;
+        });
+        publishRatingChanged(productId);
+        return saved;
+    }
+
+    public boolean delete(Long id) {
+        Long productId = transactionTemplate.execute(status -> {
+            Optional<Review> review = reviewRepository.findById(id);
+            if (review.isEmpty()) {
+                return null;
+            }
+            Review existing = review.get();
+            Long pid = existing.getProduct().getId();
+            reviewRepository.delete(existing);
+            productRepository.updateRating(pid, existing.getStars(), -1, -existing.getStars());
+            return pid;
+        });
+        if (productId == null) {
+            return false;
+        }
+        publishRatingChanged(productId);
+        return true;
+    }
+
+    private void publishRatingChanged(Long productId) {
+        Optional<Product> product = productRepository.findById(productId);
+        product.ifPresent(p -> catalogVersion.publish(ProductChangedEvent.saved(p, p.getCategory())));
+    }
+}
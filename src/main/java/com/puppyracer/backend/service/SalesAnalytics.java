@@ -0,0 +1,343 @@
+package com.puppyracer.backend.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.puppyracer.backend.dto.CategorySales;
+import com.puppyracer.backend.dto.DailySales;
+import com.puppyracer.backend.dto.ProductSales;
+import com.puppyracer.backend.model.Category;
+import com.puppyracer.backend.model.Order;
+import com.puppyracer.backend.model.OrderItem;
+import com.puppyracer.backend.model.OrderStatus;
+import com.puppyracer.backend.repository.OrderRepository;
+import com.puppyracer.backend.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Umsatzstatistik (pro Tag, pro Kategorie, Top-Produkte) als Aggregate im Speicher.
+ *
+ * Gezählt werden alle nicht stornierten Bestellungen: Neue Bestellungen kommen
+ * über OrderStatusChangedEvent hinzu, beim Stornieren werden sie wieder abgezogen.
+ * Abfragen hängen damit nur von der Anzahl Tage bzw. Produkte ab, nicht von der
+ * Anzahl Bestellungen. Beträge werden als Cent-Summen (long) geführt.
+ * Kategorien stammen aus den Positionen (Stand zum Bestellzeitpunkt), damit ein
+ * späterer Kategoriewechsel des Produkts Stornos nicht falsch zuordnet.
+ *
+ * Der Neuaufbau liest alle Bestellungen in Keyset-Batches und tauscht den Stand
+ * erst am Ende aus. Statuswechsel, die währenddessen eintreffen, werden weiter auf
+ * den alten Stand angewendet und zusätzlich gepuffert; vor dem Austausch werden
+ * sie auf den neuen Stand nachgespielt. Ob der Neuaufbau eine Bestellung schon
+ * gezählt hat, entscheiden die gemerkten IDs - nicht die ID-Reihenfolge, denn mit
+ * Sequenz-Blöcken werden Bestellungen nicht in ID-Reihenfolge committet.
+ */
+@Service
+public class SalesAnalytics {
+
+    private static final Logger log = LoggerFactory.getLogger(SalesAnalytics.class);
+
+    private static final class Totals {
+        final AtomicLong orders = new AtomicLong();
+        final AtomicLong quantity = new AtomicLong();
+        final AtomicLong revenueCents = new AtomicLong();
+        // Nur für Produkte: zuletzt gesehener Name
+        volatile String name;
+
+        void add(int sign, long quantity, long revenueCents) {
+            this.orders.addAndGet(sign);
+            this.quantity.addAndGet(sign * quantity);
+            this.revenueCents.addAndGet(sign * revenueCents);
+        }
+    }
+
+    // Kompletter Stand; der Neuaufbau ersetzt ihn auf einmal
+    private static final class State {
+        final Map<LocalDate, Totals> byDay = new ConcurrentHashMap<>();
+        final Map<Category, Totals> byCategory = new ConcurrentHashMap<>();
+        final Map<Long, Totals> byProduct = new ConcurrentHashMap<>();
+    }
+
+    private final OrderRepository orderRepository;
+    private final ProductRepository productRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int batchSize;
+    private final AsyncCache<Long, Category> categories;
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    // Ordnet Statuswechsel und Austausch des Stands; ReentrantLock statt synchronized (virtuelle Threads)
+    private final ReentrantLock eventLock = new ReentrantLock();
+
+    private volatile State state = new State();
+    // Während eines Neuaufbaus eingetroffene Statuswechsel, sonst null (nur unter eventLock)
+    private List<OrderStatusChangedEvent> pending;
+
+    public SalesAnalytics(OrderRepository orderRepository,
+                          ProductRepository productRepository,
+                          EntityManager entityManager,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${app.analytics.batch-size:500}") int batchSize,
+                          @Value("${app.catalog-cache.max-products:10000}") long maxProducts) {
+        this.orderRepository = orderRepository;
+        this.productRepository = productRepository;
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.batchSize = batchSize;
+        // Kategorie je Produkt-ID; wird bei Produktänderungen entfernt
+        this.categories = Caffeine.newBuilder()
+                .maximumSize(maxProducts)
+                .buildAsync();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * Baut alle Aggregate aus den gespeicherten Bestellungen neu auf.
+     *
+     * @return Anzahl gezählter Bestellungen, leer wenn bereits ein Neuaufbau läuft
+     */
+    public Optional<Long> rebuild() {
+        if (!rebuildLock.tryLock()) {
+            return Optional.empty();
+        }
+        try {
+            eventLock.lock();
+            try {
+                pending = new ArrayList<>();
+            } finally {
+                eventLock.unlock();
+            }
+
+            State rebuilt = new State();
+            CountedIds counted = new CountedIds();
+            long lastId = 0;
+            while (true) {
+                final long after = lastId;
+                // Pro Batch eine Transaktion, damit Items nachgeladen werden können
+                List<Long> ids = readOnlyTransaction.execute(status -> {
+                    List<Order> batch = orderRepository.findByStatusNotAndIdGreaterThanOrderByIdAsc(
+                            OrderStatus.CANCELLED, after, Limit.of(batchSize));
+                    for (Order order : batch) {
+                        apply(rebuilt, order, 1);
+                    }
+                    List<Long> batchIds = batch.stream().map(Order::getId).toList();
+                    // Unter Open-in-View (POST /rebuild) blieben sonst alle Bestellungen im Request verwaltet
+                    entityManager.clear();
+                    return batchIds;
+                });
+                if (ids.isEmpty()) {
+                    break;
+                }
+                ids.forEach(counted::add);
+                lastId = ids.get(ids.size() - 1);
+            }
+
+            eventLock.lock();
+            try {
+                replay(rebuilt, counted, pending);
+                state = rebuilt;
+            } finally {
+                pending = null;
+                eventLock.unlock();
+            }
+            log.info("Sales analytics built from {} orders", counted.size());
+            return Optional.of((long) counted.size());
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    @EventListener
+    public void onStatusChanged(OrderStatusChangedEvent event) {
+        boolean wasCounted = event.previous() != null && event.previous() != OrderStatus.CANCELLED;
+        boolean isCounted = event.current() != OrderStatus.CANCELLED;
+        if (wasCounted == isCounted) {
+            return;
+        }
+        eventLock.lock();
+        try {
+            apply(state, event.order(), isCounted ? 1 : -1);
+            if (pending != null) {
+                pending.add(event);
+            }
+        } finally {
+            eventLock.unlock();
+        }
+    }
+
+    // Bringt jede Bestellung mit gepufferten Ereignissen im neuen Stand auf ihren letzten Status.
+    // Der Neuaufbau kann sie vor oder nach jedem dieser Ereignisse gelesen haben, daher zählt
+    // nur, ob sie dort schon gezählt ist. CANCELLED ist endgültig, auch wenn ein älteres
+    // Ereignis (Anlage) erst danach eintrifft.
+    private void replay(State rebuilt, CountedIds counted, List<OrderStatusChangedEvent> events) {
+        Map<Long, Boolean> countedNow = new HashMap<>();
+        Set<Long> cancelled = new HashSet<>();
+        for (OrderStatusChangedEvent event : events) {
+            Long id = event.orderId();
+            if (event.current() == OrderStatus.CANCELLED) {
+                cancelled.add(id);
+            }
+            boolean wasCounted = countedNow.computeIfAbsent(id, counted::contains);
+            boolean isCounted = !cancelled.contains(id);
+            if (wasCounted != isCounted) {
+                apply(rebuilt, event.order(), isCounted ? 1 : -1);
+                countedNow.put(id, isCounted);
+            }
+        }
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        categories.synchronous().invalidate(event.productId());
+    }
+
+    @EventListener
+    public void onProductsImported(ProductsImportedEvent event) {
+        categories.synchronous().invalidateAll();
+    }
+
+    public List<DailySales> daily(LocalDate from, LocalDate to) {
+        State current = state;
+        List<DailySales> result = new ArrayList<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            Totals totals = current.byDay.get(day);
+            result.add(totals == null
+                    ? new DailySales(day, 0, BigDecimal.ZERO.setScale(2))
+                    : new DailySales(day, totals.orders.get(), euros(totals.revenueCents.get())));
+        }
+        return result;
+    }
+
+    public List<CategorySales> byCategory() {
+        State current = state;
+        List<CategorySales> result = new ArrayList<>();
+        for (Category category : Category.values()) {
+            Totals totals = current.byCategory.getOrDefault(category, new Totals());
+            result.add(new CategorySales(category.getApiValue(), category.getDisplayName(),
+                    totals.orders.get(), totals.quantity.get(), euros(totals.revenueCents.get())));
+        }
+        return result;
+    }
+
+    // Aufwand hängt nur von der Anzahl verkaufter Produkte ab
+    public List<ProductSales> topProducts(int limit) {
+        return state.byProduct.entrySet().stream()
+                .filter(entry -> entry.getValue().quantity.get() > 0)
+                .map(entry -> new ProductSales(entry.getKey(), entry.getValue().name,
+                        entry.getValue().orders.get(), entry.getValue().quantity.get(),
+                        euros(entry.getValue().revenueCents.get())))
+                .sorted(Comparator.comparingLong(ProductSales::quantity).reversed()
+                        .thenComparing(ProductSales::revenue, Comparator.reverseOrder()))
+                .limit(limit)
+                .toList();
+    }
+
+    // sign = +1 Bestellung zählen, -1 wieder abziehen
+    private void apply(State target, Order order, int sign) {
+        if (order.getOrderDate() != null && order.getTotalAmount() != null) {
+            target.byDay.computeIfAbsent(order.getOrderDate().toLocalDate(), day -> new Totals())
+                    .add(sign, 0, cents(order.getTotalAmount()));
+        }
+
+        // Erst pro Produkt/Kategorie zusammenfassen, damit "orders" jede Bestellung nur einmal zählt
+        Map<Long, long[]> perProduct = new HashMap<>();
+        Map<Long, String> names = new HashMap<>();
+        Map<Long, Category> orderedCategories = new HashMap<>();
+        for (OrderItem item : order.getItems()) {
+            if (item.getProductId() == null || item.getQuantity() == null || item.getPrice() == null) {
+                continue;
+            }
+            long[] sums = perProduct.computeIfAbsent(item.getProductId(), id -> new long[2]);
+            sums[0] += item.getQuantity();
+            sums[1] += cents(item.getTotalPrice());
+            names.put(item.getProductId(), item.getProductName());
+            if (item.getProductCategory() != null) {
+                orderedCategories.put(item.getProductId(), item.getProductCategory());
+            }
+        }
+
+        Map<Category, long[]> perCategory = new HashMap<>();
+        perProduct.forEach((productId, sums) -> {
+            Totals totals = target.byProduct.computeIfAbsent(productId, id -> new Totals());
+            totals.add(sign, sums[0], sums[1]);
+            totals.name = names.get(productId);
+
+            // Kategorie zum Bestellzeitpunkt, damit Stornos dort abgezogen werden, wo gezählt wurde
+            Category category = orderedCategories.containsKey(productId)
+                    ? orderedCategories.get(productId)
+                    : categoryOf(productId);
+            if (category != null) {
+                long[] categorySums = perCategory.computeIfAbsent(category, c -> new long[2]);
+                categorySums[0] += sums[0];
+                categorySums[1] += sums[1];
+            }
+        });
+        perCategory.forEach((category, sums) -> target.byCategory
+                .computeIfAbsent(category, c -> new Totals())
+                .add(sign, sums[0], sums[1]));
+    }
+
+    // Nur für Altdaten ohne gespeicherte Kategorie: aktuelle Kategorie des Produkts.
+    // Wurde das Produkt seitdem verschoben, stimmt die Zuordnung erst nach einem Neuaufbau wieder.
+    // Gelöschte Produkte oder ohne Kategorie: null (nicht gecacht)
+    private Category categoryOf(Long productId) {
+        return CacheLoads.getOrLoad(categories, productId,
+                id -> productRepository.findCategoryById(id).orElse(null));
+    }
+
+    // Vom Neuaufbau gezählte Bestell-IDs; kommen aufsteigend, daher Binärsuche statt Set (8 Byte pro ID)
+    private static final class CountedIds {
+        private long[] ids = new long[1024];
+        private int size;
+
+        void add(long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        boolean contains(long id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        int size() {
+            return size;
+        }
+    }
+
+    private static long cents(BigDecimal amount) {
+        return amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    private static BigDecimal euros(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+}
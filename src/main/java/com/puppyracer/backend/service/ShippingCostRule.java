@@ -0,0 +1,18 @@
+package com.puppyracer.backend.service;
+
+import com.puppyracer.backend.model.Order;
+
+import java.math.BigDecimal;
+
+/**
+ * Berechnet die Versandkosten einer Bestellung. Eine eigene Implementierung
+ * als @Primary-Bean ersetzt die Standardregel (ThresholdShippingCostRule).
+ */
+public interface ShippingCostRule {
+
+    /**
+     * @param subtotal bereits serverseitig berechnete Zwischensumme
+     * @param order    Bestellung mit Lieferadresse und Positionen
+     */
+    BigDecimal shippingCost(BigDecimal subtotal, Order order);
+}
@@ -0,0 +1,12 @@
+package com.puppyracer.backend.service;
+
+import java.util.Collection;
+
+/**
+ * Bestand von Produkten hat sich durch Bestellungen geändert (nach dem Commit).
+ * Leichter als ProductChangedEvent: Der Suchindex tauscht nur seine gespeicherten Produkte
+ * aus, ohne neu zu tokenisieren (außer Titel oder Beschreibung haben sich inzwischen geändert);
+ * Autocomplete ist nicht betroffen.
+ */
+public record StockChangedEvent(Collection<Long> productIds) {
+}
@@ -0,0 +1,28 @@
+package com.puppyracer.backend.service;
+
+import com.puppyracer.backend.model.Order;
+
+import java.math.BigDecimal;
+
+/**
+ * Standardregel: Pauschale Versandkosten, ab einem Mindestbestellwert versandkostenfrei.
+ * freeFrom = null bedeutet: immer Pauschale.
+ */
+public class ThresholdShippingCostRule implements ShippingCostRule {
+
+    private final BigDecimal flatRate;
+    private final BigDecimal freeFrom;
+
+    public ThresholdShippingCostRule(BigDecimal flatRate, BigDecimal freeFrom) {
+        this.flatRate = flatRate;
+        this.freeFrom = freeFrom;
+    }
+
+    @Override
+    public BigDecimal shippingCost(BigDecimal subtotal, Order order) {
+        if (freeFrom != null && subtotal.compareTo(freeFrom) >= 0) {
+            return BigDecimal.ZERO;
+        }
+        return flatRate;
+    }
+}
@@ -0,0 +1,59 @@
+package com.puppyracer.backend.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.puppyracer.backend.model.User;
+import com.puppyracer.backend.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * In-Process-Cache für die Auflösung JWT-Subject (oauthId) -> User.
+ * Spart die Datenbankabfrage, die sonst bei jedem geschützten Request anfällt.
+ * Einträge laufen nach der TTL ab und werden bei Änderungen am User explizit entfernt.
+ */
+@Service
+public class UserPrincipalCache {
+
+    public static final String CACHE_NAME = "userPrincipals";
+
+    private final UserRepository userRepository;
+    private final AsyncCache<String, User> cache;
+
+    public UserPrincipalCache(UserRepository userRepository,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.user-cache.max-size:10000}") long maxSize,
+                              @Value("${app.user-cache.ttl:5m}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        // Hit/Miss/Eviction-Metriken unter /actuator/metrics/cache.*
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public Optional<User> findByOauthId(String oauthId) {
+        if (oauthId == null) {
+            return Optional.empty();
+        }
+        // Fehlende User werden nicht gecacht (Caffeine speichert keine null-Werte)
+        return Optional.ofNullable(CacheLoads.getOrLoad(cache, oauthId, id -> userRepository.findByOauthId(id).orElse(null)));
+    }
+
+    public void evict(String oauthId) {
+        if (oauthId != null) {
+            cache.synchronous().invalidate(oauthId);
+        }
+    }
+
+    public void evictAll() {
+        cache.synchronous().invalidateAll();
+    }
+}
@@ -0,0 +1,38 @@
+package com.puppyracer.backend;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Collection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Startet JMH-Benchmarks aus den Testquellen (Klassen *Benchmark). Läuft nur auf Anforderung:
+ *
+ *   mvn test -Dtest=JmhBenchmarksTest -Dbenchmark=OrderPricingBenchmark
+ *
+ * -Dbenchmark ist ein regulärer Ausdruck auf den Benchmark-Namen; die Ergebnisse stehen
+ * zusätzlich als JSON in target/jmh-result.json.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = ".+")
+class JmhBenchmarksTest {
+
+    @Test
+    void runBenchmarks() throws Exception {
+        Options options = new OptionsBuilder()
+                .include(System.getProperty("benchmark"))
+                .result("target/jmh-result.json")
+                .resultFormat(ResultFormatType.JSON)
+                .build();
+
+        Collection<RunResult> results = new Runner(options).run();
+
+        assertThat(results).isNotEmpty();
+    }
+}
@@ -0,0 +1,182 @@
+package com.puppyracer.backend;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Lastvergleich Plattform-Threads gegen virtuelle Threads (Profil "virtual") auf
+ * GET /api/orders/my-orders (JWT -> User aus dem Cache, Bestellungen per JDBC).
+ * Läuft nur auf Anforderung, weil er Zahlen liefert statt Korrektheit zu prüfen:
+ *
+ *   mvn test -Dtest=VirtualThreadLoadTest -Dloadtest=true -Dloadtest.concurrency=400 -Dloadtest.seconds=15
+ *
+ * Beide Läufe starten die Anwendung auf einem freien Port mit eigener H2-Datenbank und
+ * gleich großem Verbindungspool, damit sich nur das Threading-Modell unterscheidet.
+ * Mit H2 im Speicher ist der Server CPU-gebunden; die Zahlen sind daher nur ein Vergleich
+ * auf derselben Maschine, keine absolute Kapazität.
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class VirtualThreadLoadTest {
+
+    // Käufer aus dem DataLoader
+    private static final String BUYER_OAUTH_ID = "auth0|6942b6bd49c4d1b989dbfa45";
+    private static final int CONCURRENCY = Integer.getInteger("loadtest.concurrency", 200);
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("loadtest.seconds", 15));
+    private static final Duration WARMUP = Duration.ofSeconds(Long.getLong("loadtest.warmup-seconds", 3));
+    private static final int POOL_SIZE = 20;
+
+    record Result(String mode, long requests, long errors, double perSecond, double p50Millis, double p99Millis) {
+
+        @Override
+        public String toString() {
+            return String.format("%-8s c=%d: %6.0f req/s  p50 %6.1f ms  p99 %7.1f ms  (%d Requests, %d Fehler)",
+                    mode, CONCURRENCY, perSecond, p50Millis, p99Millis, requests, errors);
+        }
+    }
+
+    @Test
+    void compareVirtualAndPlatformThreads() throws Exception {
+        // Unter JDK 17 ignoriert Spring spring.threads.virtual.enabled, beide Läufe wären gleich
+        assumeTrue(Runtime.version().feature() >= 21, "Virtuelle Threads brauchen JDK 21");
+        Result platform = run(false);
+        Result virtual = run(true);
+
+        System.out.println("=== LASTVERGLEICH GET /api/orders/my-orders (" + DURATION.toSeconds() + "s) ===");
+        System.out.println(platform);
+        System.out.println(virtual);
+
+        assertThat(platform.errors()).isZero();
+        assertThat(virtual.errors()).isZero();
+        assertThat(platform.requests()).isPositive();
+        assertThat(virtual.requests()).isPositive();
+    }
+
+    private Result run(boolean virtualThreads) throws Exception {
+        String mode = virtualThreads ? "virtual" : "platform";
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(
+                PuppyracerBackendApplication.class, FixedTokenConfig.class);
+        if (virtualThreads) {
+            builder.profiles("virtual");
+        }
+        try (ConfigurableApplicationContext context = builder.run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:loadtest-" + mode + ";DB_CLOSE_DELAY=-1",
+                "--spring.datasource.hikari.maximum-pool-size=" + POOL_SIZE,
+                "--logging.level.com.puppyracer=WARN")) {
+            String port = context.getEnvironment().getProperty("local.server.port");
+            URI uri = URI.create("http://localhost:" + port + "/api/orders/my-orders");
+
+            load(uri, WARMUP);
+            return summarize(mode, load(uri, DURATION), DURATION);
+        }
+    }
+
+    // Jeder Client-Thread schickt Requests hintereinander bis zum Ende der Laufzeit
+    private List<long[]> load(URI uri, Duration duration) throws Exception {
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        HttpRequest request = HttpRequest.newBuilder(uri).header("Authorization", "Bearer load-test").GET().build();
+        long deadline = System.nanoTime() + duration.toNanos();
+
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENCY);
+        try {
+            List<Future<long[]>> workers = new ArrayList<>();
+            for (int i = 0; i < CONCURRENCY; i++) {
+                workers.add(executor.submit(() -> {
+                    long[] latencies = new long[1024];
+                    int count = 0;
+                    long errors = 0;
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                errors++;
+                                continue;
+                            }
+                        } catch (Exception e) {
+                            errors++;
+                            continue;
+                        }
+                        if (count == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, count * 2);
+                        }
+                        latencies[count++] = System.nanoTime() - start;
+                    }
+                    // Letzter Eintrag = Fehleranzahl
+                    long[] result = Arrays.copyOf(latencies, count + 1);
+                    result[count] = errors;
+                    return result;
+                }));
+            }
+            List<long[]> results = new ArrayList<>();
+            for (Future<long[]> worker : workers) {
+                results.add(worker.get());
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Result summarize(String mode, List<long[]> results, Duration duration) {
+        long errors = 0;
+        int total = 0;
+        for (long[] result : results) {
+            errors += result[result.length - 1];
+            total += result.length - 1;
+        }
+        long[] latencies = new long[total];
+        int offset = 0;
+        for (long[] result : results) {
+            System.arraycopy(result, 0, latencies, offset, result.length - 1);
+            offset += result.length - 1;
+        }
+        Arrays.sort(latencies);
+        return new Result(mode, total, errors, total / (double) duration.toSeconds(),
+                percentileMillis(latencies, 0.50), percentileMillis(latencies, 0.99));
+    }
+
+    private static double percentileMillis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, Math.round(percentile * sorted.length))] / 1_000_000.0;
+    }
+
+    // Akzeptiert jedes Token als Käufer, damit der Lasttest ohne Auth0 läuft
+    @TestConfiguration(proxyBeanMethods = false)
+    static class FixedTokenConfig {
+
+        @Bean
+        JwtDecoder jwtDecoder() {
+            return token -> Jwt.withTokenValue(token)
+                    .header("alg", "none")
+                    .subject(BUYER_OAUTH_ID)
+                    .issuedAt(Instant.now())
+                    .expiresAt(Instant.now().plusSeconds(3600))
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.puppyracer.backend.controller;
+
+import com.puppyracer.backend.model.Category;
+import com.puppyracer.backend.model.Order;
+import com.puppyracer.backend.model.OrderItem;
+import com.puppyracer.backend.model.Product;
+import com.puppyracer.backend.model.Role;
+import com.puppyracer.backend.model.User;
+import com.puppyracer.backend.repository.OrderRepository;
+import com.puppyracer.backend.repository.ProductRepository;
+import com.puppyracer.backend.repository.UserRepository;
+import com.puppyracer.backend.service.CheckoutService;
+import com.puppyracer.backend.service.OrderNumberGenerator;
+import com.puppyracer.backend.service.OrderPipeline;
+import com.puppyracer.backend.service.UserPrincipalCache;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Jeder Bestell-Endpunkt lädt Bestellungen, User und Positionen mit fester Anzahl SQL-Statements (kein N+1)
+// und liefert asynchron gespeicherte Bestellungen ohne Lücke zwischen Pipeline und Datenbank
+@SpringBootTest
+class OrderControllerTest {
+
+    private static final String OAUTH_ID = "test|order-controller";
+    private static final int ORDERS = 5;
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CheckoutService checkoutService;
+
+    @Autowired
+    private OrderNumberGenerator orderNumberGenerator;
+
+    @Autowired
+    private UserPrincipalCache userPrincipalCache;
+
+    @MockitoSpyBean
+    private OrderPipeline orderPipeline;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private MockMvc mockMvc;
+    private Statistics statistics;
+    private User user;
+    private final List<Product> products = new ArrayList<>();
+    private final List<Order> orders = new ArrayList<>();
+
+    @BeforeEach
+    void createData() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        user = userRepository.save(new User("orders@test.de", "Order Test", OAUTH_ID, Role.BUYER));
+        for (int i = 0; i < 2; i++) {
+            products.add(productRepository.save(product("Testleine " + i)));
+        }
+        for (int i = 0; i < ORDERS; i++) {
+            orders.add(checkoutService.placeOrder(order()));
+        }
+        // User-Lookup ist gecacht und soll nicht mitgezählt werden
+        userPrincipalCache.findByOauthId(OAUTH_ID);
+    }
+
+    @AfterEach
+    void deleteData() {
+        statistics.setStatisticsEnabled(false);
+        orderRepository.deleteAll(orderRepository.findByUserIdOrderByOrderDateDesc(user.getId()));
+        productRepository.deleteAll(products);
+        userPrincipalCache.evict(OAUTH_ID);
+        userRepository.delete(user);
+    }
+
+    @Test
+    void myOrdersUsesOneStatement() throws Exception {
+        assertThat(statements(get("/api/orders/my-orders"), false, "$.length()", ORDERS)).isEqualTo(1);
+    }
+
+    @Test
+    void orderByIdUsesOneStatement() throws Exception {
+        Order order = orders.get(0);
+        assertThat(statements(get("/api/orders/{id}", order.getId()), false, "$.items.length()", 2)).isEqualTo(1);
+    }
+
+    @Test
+    void orderByNumberUsesOneStatement() throws Exception {
+        Order order = orders.get(0);
+        assertThat(statements(get("/api/orders/number/{number}", order.getOrderNumber()), false,
+                "$.items.length()", 2)).isEqualTo(1);
+    }
+
+    @Test
+    void adminListUsesOneStatement() throws Exception {
+        int all = (int) orderRepository.count();
+        assertThat(statements(get("/api/orders/admin"), true, "$.length()", all)).isEqualTo(1);
+    }
+
+    // Seite mit User per Join, Positionen aller Bestellungen der Seite per Batch-Fetch
+    @Test
+    void adminPageUsesTwoStatements() throws Exception {
+        assertThat(statements(get("/api/orders/admin").param("page", "0").param("size", "20"), true,
+                "$.content[0].items.length()", 2)).isEqualTo(2);
+    }
+
+    // Worker speichert und entfernt seinen Eintrag, nachdem die erste DB-Abfrage nichts gefunden hat
+    @Test
+    void orderSavedBetweenDatabaseAndPipelineLookupIsFound() throws Exception {
+        Order order = order();
+        doAnswer(invocation -> {
+            orders.add(checkoutService.placeOrder(order));
+            return Optional.empty();
+        }).when(orderPipeline).find(order.getOrderNumber());
+
+        mockMvc.perform(get("/api/orders/number/{number}", order.getOrderNumber())
+                        .with(jwt().jwt(jwt -> jwt.subject(OAUTH_ID))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orderNumber").value(order.getOrderNumber()));
+    }
+
+    // Führt den Request aus (inkl. JSON-Serialisierung) und liefert die Anzahl vorbereiteter Statements
+    private long statements(MockHttpServletRequestBuilder request, boolean admin,
+                            String jsonPath, int expected) throws Exception {
+        statistics.clear();
+        mockMvc.perform(request.with(admin
+                        ? jwt().jwt(jwt -> jwt.subject(OAUTH_ID)).authorities(new SimpleGrantedAuthority("ROLE_ADMIN"))
+                        : jwt().jwt(jwt -> jwt.subject(OAUTH_ID))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath(jsonPath).value(expected));
+        return statistics.getPrepareStatementCount();
+    }
+
+    private Order order() {
+        Order order = new Order();
+        order.setUser(user);
+        order.setOrderNumber(orderNumberGenerator.next());
+        order.setFirstName("Max");
+        order.setLastName("Mustermann");
+        order.setEmail("orders@test.de");
+        order.setStreet("Teststraße 1");
+        order.setZipCode("78462");
+        order.setCity("Konstanz");
+        for (Product product : products) {
+            OrderItem item = new OrderItem();
+            item.setProductId(product.getId());
+            item.setQuantity(1);
+            order.addItem(item);
+        }
+        return order;
+    }
+
+    private static Product product(String title) {
+        Product product = new Product();
+        product.setTitle(title);
+        product.setDescription("Produkt nur für den Bestell-Test");
+        product.setPrice(new BigDecimal("19.99"));
+        product.setCategory(Category.LEINEN);
+        product.setImageUrl("test.png");
+        return product;
+    }
+}
@@ -0,0 +1,51 @@
+package com.puppyracer.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.puppyracer.backend.dto.CategoryCount;
+import com.puppyracer.backend.model.Category;
+import com.puppyracer.backend.model.Product;
+import com.puppyracer.backend.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Ein Produkt-Event während der Zählabfrage darf nicht vom älteren Zählstand überschrieben werden
+class CategoryCountsTest {
+
+    @Test
+    void eventDuringRebuildIsNotLost() throws Exception {
+        CategoryCounts[] counts = new CategoryCounts[1];
+        Thread[] writer = new Thread[1];
+        ProductRepository repository = (ProductRepository) Proxy.newProxyInstance(
+                ProductRepository.class.getClassLoader(), new Class<?>[]{ProductRepository.class},
+                (proxy, method, args) -> {
+                    if (!method.getName().equals("countByCategory")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    // Neues Produkt wird gespeichert, nachdem die Abfrage ihren Stand gelesen hat
+                    writer[0] = new Thread(() -> counts[0].onProductChanged(ProductChangedEvent.saved(product(), null)));
+                    writer[0].start();
+                    writer[0].join(200);
+                    return List.of(new CategoryCount(Category.LEINEN, 3), new CategoryCount(Category.SNACKS, 1));
+                });
+        counts[0] = new CategoryCounts(repository, new ObjectMapper());
+
+        counts[0].rebuild();
+        writer[0].join();
+
+        assertThat(counts[0].count(Category.LEINEN)).isEqualTo(4);
+        assertThat(counts[0].count(Category.SNACKS)).isEqualTo(1);
+        assertThat(new ObjectMapper().readTree(counts[0].json()).get("leinen").asLong()).isEqualTo(4);
+    }
+
+    private static Product product() {
+        Product product = new Product();
+        product.setId(99L);
+        product.setTitle("Neue Leine");
+        product.setCategory(Category.LEINEN);
+        return product;
+    }
+}
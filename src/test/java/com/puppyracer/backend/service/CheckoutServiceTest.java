@@ -0,0 +1,205 @@
+package com.puppyracer.backend.service;
+
+import com.puppyracer.backend.model.Category;
+import com.puppyracer.backend.model.Order;
+import com.puppyracer.backend.model.OrderItem;
+import com.puppyracer.backend.model.OrderStatus;
+import com.puppyracer.backend.model.Product;
+import com.puppyracer.backend.model.Role;
+import com.puppyracer.backend.model.User;
+import com.puppyracer.backend.repository.OrderRepository;
+import com.puppyracer.backend.repository.ProductRepository;
+import com.puppyracer.backend.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Parallele Bestellungen auf ein heißes Produkt und parallele Stornierungen dürfen den Bestand nie verfälschen
+@SpringBootTest
+class CheckoutServiceTest {
+
+    private static final int THREADS = 16;
+    private static final int STOCK = 50;
+    private static final int ATTEMPTS = 80;
+    private static final int CANCELS_PER_ORDER = 4;
+
+    @Autowired
+    private CheckoutService checkoutService;
+
+    @Autowired
+    private OrderNumberGenerator orderNumberGenerator;
+
+    @Autowired
+    private OrderStatusCounters orderStatusCounters;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+    private Product hot;
+    private Product untracked;
+
+    @BeforeEach
+    void createData() {
+        user = userRepository.save(new User("checkout@test.de", "Checkout Test", "test|checkout", Role.BUYER));
+        hot = productRepository.save(product("Limitierte Leine", STOCK));
+        untracked = productRepository.save(product("Unbegrenzte Leine", null));
+    }
+
+    @AfterEach
+    void deleteData() {
+        orderRepository.deleteAll(orderRepository.findByUserIdOrderByOrderDateDesc(user.getId()));
+        productRepository.deleteAllById(List.of(hot.getId(), untracked.getId()));
+        userRepository.delete(user);
+    }
+
+    @Test
+    void concurrentCheckoutNeverOversells() throws Exception {
+        Queue<Order> placed = new ConcurrentLinkedQueue<>();
+        AtomicInteger outOfStock = new AtomicInteger();
+
+        runConcurrently(ATTEMPTS, () -> {
+            try {
+                placed.add(checkoutService.placeOrder(order(hot, untracked)));
+            } catch (OutOfStockException e) {
+                outOfStock.incrementAndGet();
+            }
+            return null;
+        });
+
+        assertThat(placed).hasSize(STOCK);
+        assertThat(outOfStock).hasValue(ATTEMPTS - STOCK);
+        assertThat(stock(hot)).isZero();
+        assertThat(stock(untracked)).isNull();
+    }
+
+    @Test
+    void concurrentCancelsReleaseStockOnce() throws Exception {
+        List<Order> placed = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            placed.add(checkoutService.placeOrder(order(hot, untracked)));
+        }
+        assertThat(stock(hot)).isEqualTo(STOCK - 10);
+        long cancelledBefore = orderStatusCounters.count(OrderStatus.CANCELLED);
+
+        // Jede Bestellung wird mehrfach gleichzeitig storniert
+        List<Callable<Void>> cancels = new ArrayList<>();
+        for (Order order : placed) {
+            for (int i = 0; i < CANCELS_PER_ORDER; i++) {
+                cancels.add(() -> {
+                    checkoutService.changeStatus(order.getId(), OrderStatus.CANCELLED);
+                    return null;
+                });
+            }
+        }
+        runConcurrently(cancels);
+
+        assertThat(stock(hot)).isEqualTo(STOCK);
+        assertThat(orderStatusCounters.count(OrderStatus.CANCELLED)).isEqualTo(cancelledBefore + placed.size());
+        for (Order order : placed) {
+            assertThat(orderRepository.findById(order.getId()).orElseThrow().getStatus())
+                    .isEqualTo(OrderStatus.CANCELLED);
+        }
+    }
+
+    @Test
+    void cancelDoesNotReleaseStockThatWasNeverReserved() {
+        Order order = checkoutService.placeOrder(order(hot, untracked));
+
+        // Bestand wird erst nach der Bestellung geführt
+        Product product = productRepository.findById(untracked.getId()).orElseThrow();
+        product.setStock(5);
+        productRepository.save(product);
+
+        checkoutService.changeStatus(order.getId(), OrderStatus.CANCELLED);
+
+        assertThat(stock(untracked)).isEqualTo(5);
+        assertThat(stock(hot)).isEqualTo(STOCK);
+    }
+
+    private void runConcurrently(int tasks, Callable<Void> task) throws Exception {
+        List<Callable<Void>> all = new ArrayList<>();
+        for (int i = 0; i < tasks; i++) {
+            all.add(task);
+        }
+        runConcurrently(all);
+    }
+
+    // Alle Aufgaben starten gleichzeitig, Fehler (außer den erwarteten) schlagen durch
+    private void runConcurrently(List<Callable<Void>> tasks) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (Callable<Void> task : tasks) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            for (Future<Void> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Integer stock(Product product) {
+        return productRepository.findById(product.getId()).orElseThrow().getStock();
+    }
+
+    private Order order(Product... products) {
+        Order order = new Order();
+        order.setUser(user);
+        order.setOrderNumber(orderNumberGenerator.next());
+        order.setFirstName("Max");
+        order.setLastName("Mustermann");
+        order.setEmail("checkout@test.de");
+        order.setStreet("Teststraße 1");
+        order.setZipCode("78462");
+        order.setCity("Konstanz");
+        for (Product product : products) {
+            OrderItem item = new OrderItem();
+            item.setProductId(product.getId());
+            item.setQuantity(1);
+            order.addItem(item);
+        }
+        return order;
+    }
+
+    private static Product product(String title, Integer stock) {
+        Product product = new Product();
+        product.setTitle(title);
+        product.setDescription("Produkt nur für den Checkout-Test");
+        product.setPrice(new BigDecimal("19.99"));
+        product.setCategory(Category.LEINEN);
+        product.setImageUrl("test.png");
+        product.setStock(stock);
+        return product;
+    }
+}
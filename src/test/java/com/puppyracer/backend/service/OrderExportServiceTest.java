@@ -0,0 +1,76 @@
+package com.puppyracer.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.puppyracer.backend.repository.OrderRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Der Export darf keine Bestellungen im (per Open-in-View gebundenen) Persistence Context ansammeln
+@SpringBootTest
+class OrderExportServiceTest {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private EntityManager requestEntityManager;
+
+    // Wie OpenEntityManagerInViewInterceptor: ein EntityManager für alle Transaktionen des Threads
+    @BeforeEach
+    void bindRequestEntityManager() {
+        requestEntityManager = entityManagerFactory.createEntityManager();
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(requestEntityManager));
+    }
+
+    @AfterEach
+    void unbindRequestEntityManager() {
+        TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+        requestEntityManager.close();
+    }
+
+    @Test
+    void persistenceContextIsEmptyAfterEachBatch() throws Exception {
+        OrderExportService exportService = new OrderExportService(
+                orderRepository, objectMapper, entityManager, transactionManager, 1);
+        List<Integer> managedAfterBatch = new ArrayList<>();
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void flush() {
+                managedAfterBatch.add(requestEntityManager.unwrap(Session.class).getStatistics().getEntityCount());
+            }
+        };
+
+        long written = exportService.writeNdjson(out);
+
+        assertThat(written).isEqualTo(orderRepository.count()).isGreaterThan(1);
+        assertThat(out.toString(StandardCharsets.UTF_8).lines()).hasSize((int) written);
+        assertThat(managedAfterBatch).hasSize((int) written).containsOnly(0);
+    }
+}
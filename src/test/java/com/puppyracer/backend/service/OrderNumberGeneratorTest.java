@@ -0,0 +1,121 @@
+package com.puppyracer.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Eindeutig und pro Thread streng aufsteigend, auch unter Last und bei Sequenz-Überlauf
+class OrderNumberGeneratorTest {
+
+    private static final int THREADS = 8;
+    private static final int IDS_PER_THREAD = 125_000;
+    private static final long MAX_SEQUENCE = (1L << OrderNumberGenerator.SEQUENCE_BITS) - 1;
+    private static final int TIME_SHIFT = OrderNumberGenerator.NODE_BITS + OrderNumberGenerator.SEQUENCE_BITS;
+    // Fester Zeitpunkt nach der EPOCH des Generators (2026-01-01T00:00:00Z)
+    private static final long NOW = 1767225600000L;
+
+    @Test
+    void concurrentIdsAreUniqueAndIncreasingPerThread() throws Exception {
+        OrderNumberGenerator generator = new OrderNumberGenerator(7);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<long[]>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    long[] ids = new long[IDS_PER_THREAD];
+                    for (int i = 0; i < ids.length; i++) {
+                        ids[i] = generator.nextId();
+                    }
+                    return ids;
+                }));
+            }
+            start.countDown();
+
+            long[] all = new long[THREADS * IDS_PER_THREAD];
+            int offset = 0;
+            for (Future<long[]> future : futures) {
+                long[] ids = future.get(60, TimeUnit.SECONDS);
+                for (int i = 1; i < ids.length; i++) {
+                    assertThat(ids[i]).isGreaterThan(ids[i - 1]);
+                }
+                System.arraycopy(ids, 0, all, offset, ids.length);
+                offset += ids.length;
+            }
+
+            Arrays.sort(all);
+            for (int i = 1; i < all.length; i++) {
+                assertThat(all[i]).as("Duplikat").isNotEqualTo(all[i - 1]);
+            }
+            // Knoten-ID steckt in jeder ID
+            assertThat(Arrays.stream(all).allMatch(id -> ((id >>> OrderNumberGenerator.SEQUENCE_BITS) & ((1 << OrderNumberGenerator.NODE_BITS) - 1)) == 7))
+                    .isTrue();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void sequenceOverflowMovesToNextMillisecond() {
+        OrderNumberGenerator generator = new OrderNumberGenerator(0, () -> NOW);
+
+        long first = generator.nextId();
+        long previous = first;
+        for (int i = 0; i < MAX_SEQUENCE; i++) {
+            long id = generator.nextId();
+            assertThat(id).isGreaterThan(previous);
+            previous = id;
+        }
+        long overflow = generator.nextId();
+
+        // 4096 IDs in derselben Millisekunde, danach geht es in der nächsten mit Sequenz 0 weiter
+        assertThat(previous & MAX_SEQUENCE).isEqualTo(MAX_SEQUENCE);
+        assertThat(previous >>> TIME_SHIFT).isEqualTo(first >>> TIME_SHIFT);
+        assertThat(overflow).isGreaterThan(previous);
+        assertThat(overflow >>> TIME_SHIFT).isEqualTo((first >>> TIME_SHIFT) + 1);
+        assertThat(overflow & MAX_SEQUENCE).isZero();
+    }
+
+    @Test
+    void clockGoingBackwardsKeepsIdsIncreasing() {
+        AtomicLong clock = new AtomicLong(NOW);
+        OrderNumberGenerator generator = new OrderNumberGenerator(0, clock::get);
+
+        long before = generator.nextId();
+        clock.set(NOW - 5_000);
+        long after = generator.nextId();
+
+        assertThat(after).isGreaterThan(before);
+    }
+
+    @Test
+    void orderNumbersSortLikeTheirIds() {
+        AtomicLong clock = new AtomicLong(NOW);
+        OrderNumberGenerator generator = new OrderNumberGenerator(1, clock::get);
+
+        String first = generator.next();
+        clock.addAndGet(1);
+        String second = generator.next();
+
+        assertThat(first).startsWith(OrderNumberGenerator.PREFIX).hasSize(OrderNumberGenerator.PREFIX.length() + 19);
+        assertThat(second).isGreaterThan(first);
+    }
+
+    @Test
+    void rejectsNodeIdOutOfRange() {
+        assertThatThrownBy(() -> new OrderNumberGenerator(1024))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
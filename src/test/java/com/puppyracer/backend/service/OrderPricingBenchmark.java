@@ -0,0 +1,90 @@
+package com.puppyracer.backend.service;
+
+import com.puppyracer.backend.model.Category;
+import com.puppyracer.backend.model.Order;
+import com.puppyracer.backend.model.OrderItem;
+import com.puppyracer.backend.model.Product;
+import com.puppyracer.backend.repository.ProductRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serverseitige Preisberechnung einer Bestellung ohne Datenbank: die Produkte
+ * kommen aus einem Repository-Stub, gemessen wird nur OrderPricingService.
+ * Die Bestellung trägt die Client-Summen, wie sie das Frontend mitschickt,
+ * damit jeder Aufruf auch den Abgleich durchläuft.
+ *
+ * Start: mvn test -Dtest=JmhBenchmarksTest -Dbenchmark=OrderPricingBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderPricingBenchmark {
+
+    @Param({"1", "10", "50"})
+    public int items;
+
+    private OrderPricingService pricingService;
+    private Order order;
+
+    @Setup
+    public void setUp() {
+        List<Product> products = new ArrayList<>();
+        for (long id = 1; id <= items; id++) {
+            Product product = new Product();
+            product.setId(id);
+            product.setTitle("Leine " + id);
+            product.setPrice(new BigDecimal("12.99").add(BigDecimal.valueOf(id)));
+            product.setCategory(Category.LEINEN);
+            product.setImageUrl("leine.png");
+            products.add(product);
+        }
+        pricingService = new OrderPricingService(repository(products),
+                new ThresholdShippingCostRule(new BigDecimal("4.99"), new BigDecimal("50.00")));
+
+        order = new Order();
+        for (Product product : products) {
+            OrderItem item = new OrderItem();
+            item.setProductId(product.getId());
+            item.setQuantity(2);
+            order.addItem(item);
+        }
+        // Erster Lauf setzt Preise und Summen, ab dann werden sie nur noch abgeglichen
+        pricingService.applyPricing(order);
+    }
+
+    @Benchmark
+    public Map<Long, Product> applyPricing() {
+        return pricingService.applyPricing(order);
+    }
+
+    // Nur findAllById wird gebraucht; liefert immer dieselben Produkte
+    private static ProductRepository repository(List<Product> products) {
+        return (ProductRepository) Proxy.newProxyInstance(ProductRepository.class.getClassLoader(),
+                new Class<?>[]{ProductRepository.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("findAllById")) {
+                        return products;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,107 @@
+package com.puppyracer.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.puppyracer.backend.dto.ImportReport;
+import com.puppyracer.backend.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.validation.Validator;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Import und Export dürfen keine Produkte im (per Open-in-View gebundenen) Persistence Context ansammeln
+@SpringBootTest
+class ProductBulkServiceTest {
+
+    private static final String TITLE = "Importleine";
+    private static final int ROWS = 10;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private EntityManager requestEntityManager;
+    private ProductBulkService bulkService;
+
+    // Wie OpenEntityManagerInViewInterceptor: ein EntityManager für alle Transaktionen des Threads
+    @BeforeEach
+    void bindRequestEntityManager() {
+        requestEntityManager = entityManagerFactory.createEntityManager();
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(requestEntityManager));
+        bulkService = new ProductBulkService(productRepository, objectMapper, validator, catalogVersion,
+                entityManager, transactionManager, 3, 3);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+        requestEntityManager.close();
+        productRepository.deleteAll(productRepository.findByTitleContainingIgnoreCase(TITLE));
+    }
+
+    @Test
+    void importLeavesPersistenceContextEmpty() throws Exception {
+        StringBuilder csv = new StringBuilder("title,description,price,category,imageUrl\n");
+        for (int i = 0; i < ROWS; i++) {
+            csv.append(TITLE).append(' ').append(i).append(",Leine aus dem Import-Test,9.99,LEINEN,test.png\n");
+        }
+
+        ImportReport report = bulkService.importCsv(new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(report.created()).isEqualTo(ROWS);
+        assertThat(managedEntities()).isZero();
+        assertThat(productRepository.findByTitleContainingIgnoreCase(TITLE)).hasSize(ROWS);
+    }
+
+    @Test
+    void exportLeavesPersistenceContextEmptyAfterEachBatch() throws Exception {
+        List<Integer> managedAfterBatch = new ArrayList<>();
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void flush() {
+                managedAfterBatch.add(managedEntities());
+            }
+        };
+
+        long written = bulkService.writeNdjson(out);
+
+        assertThat(written).isEqualTo(productRepository.count());
+        assertThat(managedAfterBatch).hasSizeGreaterThan(1).containsOnly(0);
+    }
+
+    private int managedEntities() {
+        return requestEntityManager.unwrap(Session.class).getStatistics().getEntityCount();
+    }
+}
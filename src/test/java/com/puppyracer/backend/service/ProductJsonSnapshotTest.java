@@ -0,0 +1,91 @@
+package com.puppyracer.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.puppyracer.backend.model.Category;
+import com.puppyracer.backend.model.Product;
+import com.puppyracer.backend.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Events, die während des Ladens im Neuaufbau ankommen, dürfen nicht durch veraltete Bytes ersetzt werden
+class ProductJsonSnapshotTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void eventsDuringRebuildSurviveTheSwap() throws Exception {
+        ProductJsonSnapshot[] snapshot = new ProductJsonSnapshot[1];
+        ProductRepository repository = repository(() -> {
+            // Während findAll läuft: Umbenennung, Löschung und Bestandsänderung
+            Product renamed = product(1, "Neue Leine", 5);
+            snapshot[0].onProductChanged(ProductChangedEvent.saved(renamed, Category.LEINEN));
+            snapshot[0].onProductChanged(ProductChangedEvent.deleted(2L, Category.LEINEN));
+            snapshot[0].onStockChanged(new StockChangedEvent(List.of(3L)));
+            // Stand vom Beginn des Ladens
+            return List.of(product(1, "Alte Leine", 5), product(2, "Gelöschte Leine", 5),
+                    product(3, "Dritte Leine", 5), product(4, "Vierte Leine", 5));
+        }, List.of(product(3, "Dritte Leine", 1)));
+        snapshot[0] = new ProductJsonSnapshot(repository, objectMapper, new SimpleMeterRegistry(), true, false, 1);
+
+        snapshot[0].rebuild();
+
+        assertThat(snapshot[0].isReady()).isTrue();
+        assertThat(json(snapshot[0].product(1L)).get("title").asText()).isEqualTo("Neue Leine");
+        assertThat(snapshot[0].product(2L)).isNull();
+        assertThat(json(snapshot[0].product(3L)).get("stock").asInt()).isEqualTo(1);
+        assertThat(json(snapshot[0].product(4L)).get("title").asText()).isEqualTo("Vierte Leine");
+        assertThat(json(snapshot[0].all()).findValuesAsText("title"))
+                .containsExactly("Neue Leine", "Dritte Leine", "Vierte Leine");
+    }
+
+    @Test
+    void laterRebuildAppliesEverythingAgain() throws Exception {
+        AtomicReference<List<Product>> current = new AtomicReference<>(
+                List.of(product(1, "Alte Leine", 5), product(2, "Zweite Leine", 5)));
+        ProductJsonSnapshot snapshot = new ProductJsonSnapshot(repository(current::get, List.of()),
+                objectMapper, new SimpleMeterRegistry(), true, false, 1);
+        snapshot.rebuild();
+
+        current.set(List.of(product(1, "Neue Leine", 5)));
+        snapshot.rebuild();
+
+        assertThat(json(snapshot.product(1L)).get("title").asText()).isEqualTo("Neue Leine");
+        assertThat(snapshot.product(2L)).isNull();
+    }
+
+    private JsonNode json(ProductJsonSnapshot.Encoded encoded) throws Exception {
+        return objectMapper.readTree(encoded.json());
+    }
+
+    // findAll liefert, was der Supplier liefert; findAllById immer denselben frischen Stand
+    private static ProductRepository repository(Supplier<List<Product>> findAll,
+                                                List<Product> findAllById) {
+        return (ProductRepository) Proxy.newProxyInstance(ProductRepository.class.getClassLoader(),
+                new Class<?>[]{ProductRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "findAll" -> findAll.get();
+                    case "findAllById" -> findAllById;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static Product product(long id, String title, int stock) {
+        Product product = new Product();
+        product.setId(id);
+        product.setTitle(title);
+        product.setDescription("Produkt nur für den Snapshot-Test");
+        product.setPrice(new BigDecimal("19.99"));
+        product.setCategory(Category.LEINEN);
+        product.setImageUrl("test.png");
+        product.setStock(stock);
+        return product;
+    }
+}
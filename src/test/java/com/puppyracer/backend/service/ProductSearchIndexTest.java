@@ -0,0 +1,91 @@
+package com.puppyracer.backend.service;
+
+import com.puppyracer.backend.model.Category;
+import com.puppyracer.backend.model.Product;
+import com.puppyracer.backend.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Events, die zwischen Lesen und Indexieren eines Batches ankommen, dürfen nicht vom Batch überschrieben werden
+class ProductSearchIndexTest {
+
+    @Test
+    void eventsDuringRebuildSurviveTheBatch() {
+        ProductSearchIndex[] index = new ProductSearchIndex[1];
+        boolean[] read = new boolean[1];
+        ProductSearchIndex searchIndex = new ProductSearchIndex(repository(() -> {
+            if (read[0]) {
+                return List.of();
+            }
+            read[0] = true;
+            // Batch ist gelesen, aber noch nicht indexiert: Umbenennung, Löschung und Bestandsänderung
+            List<Product> batch = List.of(product(1, "Alte Leine", 5), product(2, "Gelöschte Leine", 5),
+                    product(3, "Dritte Leine", 5), product(4, "Vierte Leine", 5));
+            index[0].onProductChanged(ProductChangedEvent.saved(product(1, "Neue Leine", 5), Category.LEINEN));
+            index[0].onProductChanged(ProductChangedEvent.deleted(2L, Category.LEINEN));
+            index[0].onStockChanged(new StockChangedEvent(List.of(3L)));
+            return batch;
+        }, () -> List.of(product(3, "Dritte Leine", 1))));
+        index[0] = searchIndex;
+
+        searchIndex.rebuild();
+
+        assertThat(titles(searchIndex.search("leine", null)))
+                .containsExactlyInAnyOrder("Neue Leine", "Dritte Leine", "Vierte Leine");
+        assertThat(searchIndex.search("alte", null)).isEmpty();
+        assertThat(searchIndex.search("gelöschte", null)).isEmpty();
+        assertThat(searchIndex.search("dritte", null)).singleElement()
+                .extracting(Product::getStock).isEqualTo(1);
+    }
+
+    // Bestandsänderung liefert schon den neuen Titel, bevor dessen ProductChangedEvent da ist
+    @Test
+    void stockChangeWithChangedTitleReindexes() {
+        AtomicReference<List<Product>> byId = new AtomicReference<>(List.of());
+        ProductSearchIndex searchIndex = new ProductSearchIndex(repository(List::of, byId::get));
+        searchIndex.onProductChanged(ProductChangedEvent.saved(product(1, "Alte Leine", 5), null));
+
+        byId.set(List.of(product(1, "Neue Leine", 4)));
+        searchIndex.onStockChanged(new StockChangedEvent(List.of(1L)));
+
+        // Terme passen zum gespeicherten Produkt
+        assertThat(searchIndex.search("alte", null)).isEmpty();
+        assertThat(titles(searchIndex.search("neue", null))).containsExactly("Neue Leine");
+
+        searchIndex.onProductChanged(ProductChangedEvent.saved(product(1, "Neue Leine", 4), Category.LEINEN));
+        assertThat(titles(searchIndex.search("leine", null))).containsExactly("Neue Leine");
+    }
+
+    private static List<String> titles(List<Product> products) {
+        return products.stream().map(Product::getTitle).toList();
+    }
+
+    // Nur die beiden Lesezugriffe des Index werden gebraucht
+    private static ProductRepository repository(Supplier<List<Product>> batches, Supplier<List<Product>> byId) {
+        return (ProductRepository) Proxy.newProxyInstance(ProductRepository.class.getClassLoader(),
+                new Class<?>[]{ProductRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "findByIdGreaterThanOrderByIdAsc" -> batches.get();
+                    case "findAllById" -> byId.get();
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static Product product(long id, String title, int stock) {
+        Product product = new Product();
+        product.setId(id);
+        product.setTitle(title);
+        product.setDescription("Produkt nur für den Suchindex-Test");
+        product.setPrice(new BigDecimal("19.99"));
+        product.setCategory(Category.LEINEN);
+        product.setImageUrl("test.png");
+        product.setStock(stock);
+        return product;
+    }
+}
@@ -0,0 +1,100 @@
+package com.puppyracer.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.puppyracer.backend.model.Category;
+import com.puppyracer.backend.model.Product;
+import com.puppyracer.backend.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Produktliste als JSON: Jackson pro Request gegen die fertigen Bytes aus
+ * ProductJsonSnapshot, mit und ohne gzip im Snapshot ("jackson" komprimiert nie,
+ * ist also die Untergrenze ohne Snapshot). "afterChange" misst den
+ * ersten Abruf nach einer Produktänderung, also Neuserialisierung des Produkts
+ * plus Zusammensetzen (und Komprimieren) der Liste.
+ *
+ * Start: mvn test -Dtest=JmhBenchmarksTest -Dbenchmark=ProductSnapshotBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductSnapshotBenchmark {
+
+    @Param({"50", "500"})
+    public int products;
+
+    @Param({"false", "true"})
+    public boolean gzip;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private List<Product> catalog;
+    private ProductJsonSnapshot snapshot;
+    private int changes;
+
+    @Setup
+    public void setUp() {
+        catalog = new ArrayList<>();
+        for (long id = 1; id <= products; id++) {
+            Product product = new Product();
+            product.setId(id);
+            product.setTitle("Leine " + id);
+            product.setDescription("Robuste Leine aus Nylon, 2 m lang, mit gepolstertem Griff");
+            product.setPrice(new BigDecimal("12.99").add(BigDecimal.valueOf(id)));
+            product.setCategory(Category.values()[(int) (id % Category.values().length)]);
+            product.setImageUrl("leine.png");
+            product.setStock(10);
+            catalog.add(product);
+        }
+        snapshot = new ProductJsonSnapshot(repository(catalog), objectMapper, new SimpleMeterRegistry(),
+                true, gzip, 9);
+        snapshot.rebuild();
+    }
+
+    @Benchmark
+    public byte[] jackson() throws Exception {
+        return objectMapper.writeValueAsBytes(catalog);
+    }
+
+    @Benchmark
+    public ProductJsonSnapshot.Encoded cached() {
+        return snapshot.all();
+    }
+
+    @Benchmark
+    public ProductJsonSnapshot.Encoded afterChange() {
+        Product product = catalog.get(changes++ % catalog.size());
+        snapshot.onProductChanged(ProductChangedEvent.saved(product, product.getCategory()));
+        return snapshot.all();
+    }
+
+    // Nur findAll wird gebraucht
+    private static ProductRepository repository(List<Product> products) {
+        return (ProductRepository) Proxy.newProxyInstance(ProductRepository.class.getClassLoader(),
+                new Class<?>[]{ProductRepository.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("findAll")) {
+                        return products;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,97 @@
+package com.puppyracer.backend.service;
+
+import com.puppyracer.backend.model.Category;
+import com.puppyracer.backend.model.Product;
+import com.puppyracer.backend.model.ProductRating;
+import com.puppyracer.backend.model.Review;
+import com.puppyracer.backend.model.Role;
+import com.puppyracer.backend.model.User;
+import com.puppyracer.backend.repository.ProductRepository;
+import com.puppyracer.backend.repository.ReviewRepository;
+import com.puppyracer.backend.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Review-Zeile und Bewertungsaggregat müssen in derselben Transaktion zusammen geschrieben werden
+@SpringBootTest
+class ReviewServiceTest {
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+    private Product product;
+
+    @BeforeEach
+    void createData() {
+        user = userRepository.save(new User("reviews@test.de", "Review Test", "test|review-service", Role.BUYER));
+        Product p = new Product();
+        p.setTitle("Testleine");
+        p.setDescription("Produkt nur für den Review-Test");
+        p.setPrice(new BigDecimal("19.99"));
+        p.setCategory(Category.LEINEN);
+        p.setImageUrl("test.png");
+        product = productRepository.save(p);
+    }
+
+    @AfterEach
+    void deleteData() {
+        reviewRepository.deleteAll(reviewRepository.findByProductId(product.getId()));
+        productRepository.deleteById(product.getId());
+        userRepository.delete(user);
+    }
+
+    @Test
+    void createStoresRowAndUpdatesAggregate() {
+        long before = reviewRepository.count();
+
+        Review review = reviewService.create(review(5));
+
+        assertThat(reviewRepository.existsById(review.getId())).isTrue();
+        assertThat(reviewRepository.count()).isEqualTo(before + 1);
+        ProductRating rating = rating();
+        assertThat(rating.getCount()).isEqualTo(1);
+        assertThat(rating.getAverage()).isEqualTo(5.0);
+    }
+
+    @Test
+    void deleteRemovesRowAndUpdatesAggregate() {
+        Review review = reviewService.create(review(4));
+
+        assertThat(reviewService.delete(review.getId())).isTrue();
+
+        assertThat(reviewRepository.existsById(review.getId())).isFalse();
+        ProductRating rating = rating();
+        assertThat(rating.getCount()).isZero();
+        assertThat(rating.getSum()).isZero();
+    }
+
+    private Review review(int stars) {
+        Review review = new Review();
+        review.setStars(stars);
+        review.setText("Sehr robuste Leine, gerne wieder");
+        review.setProduct(product);
+        review.setUser(user);
+        return review;
+    }
+
+    private ProductRating rating() {
+        return productRepository.findById(product.getId()).orElseThrow().getRating();
+    }
+}
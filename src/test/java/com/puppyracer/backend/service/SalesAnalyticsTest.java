@@ -0,0 +1,158 @@
+package com.puppyracer.backend.service;
+
+import com.puppyracer.backend.dto.ProductSales;
+import com.puppyracer.backend.model.Category;
+import com.puppyracer.backend.model.Order;
+import com.puppyracer.backend.model.OrderItem;
+import com.puppyracer.backend.model.OrderStatus;
+import com.puppyracer.backend.model.Product;
+import com.puppyracer.backend.model.Role;
+import com.puppyracer.backend.model.User;
+import com.puppyracer.backend.repository.OrderRepository;
+import com.puppyracer.backend.repository.ProductRepository;
+import com.puppyracer.backend.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.AdditionalAnswers;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+
+// Statuswechsel während eines Neuaufbaus dürfen weder verloren gehen noch doppelt zählen
+@SpringBootTest
+class SalesAnalyticsTest {
+
+    @Autowired
+    private CheckoutService checkoutService;
+
+    @Autowired
+    private OrderNumberGenerator orderNumberGenerator;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private User user;
+    private Product product;
+
+    @BeforeEach
+    void createData() {
+        user = userRepository.save(new User("analytics@test.de", "Analytics Test", "test|analytics", Role.BUYER));
+        Product p = new Product();
+        p.setTitle("Statistikleine");
+        p.setDescription("Produkt nur für den Statistik-Test");
+        p.setPrice(new BigDecimal("10.00"));
+        p.setCategory(Category.LEINEN);
+        p.setImageUrl("test.png");
+        product = productRepository.save(p);
+    }
+
+    @AfterEach
+    void deleteData() {
+        orderRepository.deleteAll(orderRepository.findByUserIdOrderByOrderDateDesc(user.getId()));
+        productRepository.delete(product);
+        userRepository.delete(user);
+    }
+
+    @Test
+    void eventsDuringRebuildAreReplayed() {
+        Order cancelledAfterRead = checkoutService.placeOrder(order(1));
+        checkoutService.placeOrder(order(2));
+
+        // Ein Batch pro Bestellung; zwischen den Batches passiert, was sonst parallel passiert
+        OrderRepository racing = Mockito.mock(OrderRepository.class, AdditionalAnswers.delegatesTo(orderRepository));
+        SalesAnalytics[] analytics = new SalesAnalytics[1];
+        boolean[] done = new boolean[3];
+        doAnswer(invocation -> {
+            long after = invocation.getArgument(1);
+            if (!done[0]) {
+                // Neue Bestellung, die der Neuaufbau später selbst noch liest
+                done[0] = true;
+                Order created = outsideTransaction(() -> checkoutService.placeOrder(order(4)));
+                analytics[0].onStatusChanged(new OrderStatusChangedEvent(created, null, OrderStatus.PENDING));
+            } else if (!done[1] && after >= cancelledAfterRead.getId()) {
+                // Storno einer Bestellung, die der Neuaufbau schon gezählt hat
+                done[1] = true;
+                Order cancelled = outsideTransaction(() -> checkoutService
+                        .changeStatus(cancelledAfterRead.getId(), OrderStatus.CANCELLED).orElseThrow());
+                analytics[0].onStatusChanged(
+                        new OrderStatusChangedEvent(cancelled, OrderStatus.PENDING, OrderStatus.CANCELLED));
+            }
+            List<Order> batch = orderRepository.findByStatusNotAndIdGreaterThanOrderByIdAsc(
+                    invocation.getArgument(0), after, invocation.getArgument(2));
+            if (batch.isEmpty() && !done[2]) {
+                // Bestellung nach dem letzten Batch, aber vor dem Austausch
+                done[2] = true;
+                Order late = outsideTransaction(() -> checkoutService.placeOrder(order(8)));
+                analytics[0].onStatusChanged(new OrderStatusChangedEvent(late, null, OrderStatus.PENDING));
+            }
+            return batch;
+        }).when(racing).findByStatusNotAndIdGreaterThanOrderByIdAsc(any(OrderStatus.class), anyLong(), any(Limit.class));
+
+        analytics[0] = new SalesAnalytics(racing, productRepository, entityManager, transactionManager, 1, 10000);
+        analytics[0].rebuild();
+
+        SalesAnalytics fresh = new SalesAnalytics(orderRepository, productRepository, entityManager, transactionManager, 1, 10000);
+        fresh.rebuild();
+
+        ProductSales sales = sales(analytics[0]);
+        assertThat(sales.orders()).isEqualTo(3);
+        assertThat(sales.quantity()).isEqualTo(2 + 4 + 8);
+        assertThat(sales).isEqualTo(sales(fresh));
+        assertThat(analytics[0].byCategory()).isEqualTo(fresh.byCategory());
+    }
+
+    // Checkout in eigener Transaktion, nicht in der Read-only-Transaktion des Batches
+    private static <T> T outsideTransaction(Supplier<T> action) {
+        return CompletableFuture.supplyAsync(action).join();
+    }
+
+    private ProductSales sales(SalesAnalytics analytics) {
+        return analytics.topProducts(100).stream()
+                .filter(sales -> sales.productId().equals(product.getId()))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private Order order(int quantity) {
+        Order order = new Order();
+        order.setUser(user);
+        order.setOrderNumber(orderNumberGenerator.next());
+        order.setFirstName("Max");
+        order.setLastName("Mustermann");
+        order.setEmail("analytics@test.de");
+        order.setStreet("Teststraße 1");
+        order.setZipCode("78462");
+        order.setCity("Konstanz");
+        OrderItem item = new OrderItem();
+        item.setProductId(product.getId());
+        item.setQuantity(quantity);
+        order.addItem(item);
+        return order;
+    }
+}